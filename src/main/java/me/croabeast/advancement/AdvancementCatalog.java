@@ -0,0 +1,603 @@
+package me.croabeast.advancement;
+
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.NamespacedKey;
+import org.bukkit.advancement.Advancement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * An immutable catalog of every {@link AdvancementInfo} known at a given point in time.
+ * <p>
+ * Each catalog assigns a dense ordinal to every advancement, which can be used to index arrays instead of
+ * hashing keys, and resolves keys to ordinals through a minimal perfect hash, without allocating. Ordinals
+ * shift when advancements are removed; once an {@link #setOrdinalFile(Path) ordinal file} is set, refreshed
+ * catalogs also assign every advancement a {@link #getStableId(int) stable id} that never changes across
+ * reloads and restarts, and order their ordinals by it. A new catalog, with a new {@link #getVersion() version},
+ * is built every time the catalog is {@link #refresh() refreshed}; existing catalogs are never modified.
+ * </p>
+ * <p>
+ * Catalogs built from the server hold {@link AdvancementInfo#detach() detached} snapshots only, so keeping a
+ * catalog around does not retain the internal advancement graph of a previous datapack load. This can be
+ * confirmed after a reload with {@link #awaitHandlesReleased(long, TimeUnit)}.
+ * </p>
+ * <p>
+ * Consumers that keep their own advancement data can {@link #subscribe(Consumer) subscribe} to refreshes
+ * and rebuild it from {@link CatalogDelta deltas} instead of from scratch.
+ * </p>
+ *
+ * @see AdvancementInfo
+ */
+public final class AdvancementCatalog implements Iterable<AdvancementInfo> {
+
+    private static final AtomicInteger VERSIONS = new AtomicInteger();
+    private static volatile AdvancementCatalog current = null;
+    private static volatile Path ordinalFile = null;
+
+    /**
+     * The version of this catalog, incremented every time a new catalog is built.
+     */
+    @Getter
+    private final int version;
+
+    /**
+     * The number of strings and keys shared through the pool of the build of this catalog.
+     */
+    @Getter
+    private final long sharedStrings;
+
+    /**
+     * An estimate of the retained heap, in bytes, saved by sharing strings and keys while building this catalog.
+     */
+    @Getter
+    private final long savedBytes;
+
+    private final AdvancementInfo[] infos;
+    private final KeyIndex ordinals;
+    private final List<AdvancementInfo> values;
+
+    /**
+     * What could not be read of each advancement of the server while building this catalog, by key.
+     */
+    private final Map<NamespacedKey, String> failures;
+
+    /**
+     * The stable id of every ordinal, or {@code null} if the ids are the ordinals themselves.
+     */
+    @Nullable
+    private final int[] stableIds;
+    private volatile int[] stableOrdinals = null;
+
+    /**
+     * The completion statistics of the last rarity scan of this catalog, if any.
+     */
+    @Nullable
+    private volatile RarityStats rarity = null;
+
+    private volatile AdvancementTree tree = null;
+    private volatile TreeLayout layout = null;
+    private volatile List<CriterionInfo>[] criteria = null;
+    private volatile long fingerprint = 0;
+
+    /**
+     * The sort orders computed so far, indexed by {@link CatalogOrder.Sort#ordinal()}.
+     */
+    private final CatalogOrder[] orders = new CatalogOrder[CatalogOrder.Sort.values().length];
+
+    /**
+     * Weak references to the internal handles, criteria and rewards seen while building this catalog from the server.
+     */
+    private final List<WeakReference<Object>> handles;
+
+    private AdvancementCatalog(List<? extends AdvancementInfo> list, List<WeakReference<Object>> handles,
+                               @Nullable StringPool pool, @Nullable int[] stableIds,
+                               Map<NamespacedKey, String> failures) {
+        this.version = VERSIONS.incrementAndGet();
+        this.handles = handles;
+        this.stableIds = stableIds;
+        this.failures = failures;
+
+        sharedStrings = pool == null ? 0 : pool.getShared();
+        savedBytes = pool == null ? 0 : pool.getSavedBytes();
+
+        infos = list.toArray(new AdvancementInfo[0]);
+
+        NamespacedKey[] keys = new NamespacedKey[infos.length];
+        for (int i = 0; i < infos.length; i++) keys[i] = infos[i].getKey();
+        ordinals = new KeyIndex(keys);
+
+        values = Collections.unmodifiableList(Arrays.asList(infos));
+    }
+
+    /**
+     * Returns the number of advancements in this catalog.
+     *
+     * @return the catalog size.
+     */
+    public int size() {
+        return infos.length;
+    }
+
+    /**
+     * Returns the advancement with the given ordinal.
+     *
+     * @param ordinal the ordinal, between {@code 0} and {@link #size()} (exclusive).
+     * @return the advancement info.
+     * @throws IndexOutOfBoundsException if the ordinal is out of range.
+     */
+    @NotNull
+    public AdvancementInfo get(int ordinal) {
+        return infos[ordinal];
+    }
+
+    /**
+     * Returns the advancement with the given key.
+     *
+     * @param key the advancement key.
+     * @return the advancement info, or {@code null} if the catalog does not contain it.
+     */
+    @Nullable
+    public AdvancementInfo get(NamespacedKey key) {
+        int ordinal = ordinals.get(key);
+        return ordinal < 0 ? null : infos[ordinal];
+    }
+
+    /**
+     * Returns the ordinal of the advancement with the given key.
+     *
+     * @param key the advancement key.
+     * @return the ordinal, or {@code -1} if the catalog does not contain the advancement.
+     */
+    public int getOrdinal(NamespacedKey key) {
+        return ordinals.get(key);
+    }
+
+    /**
+     * Returns what could not be read of the advancements of the server while this catalog was
+     * {@link #refresh() refreshed}, or of the datapack files it was {@link DatapackLoader read} from.
+     * <p>
+     * Advancements that could not be read at all are missing from the catalog; the others are in it, but
+     * without the parts named by their failure, such as a parent that was lost and made them look like roots.
+     * Catalogs built in other ways have no failures.
+     * </p>
+     *
+     * @return an unmodifiable map of the failure of each advancement, by key.
+     */
+    @NotNull
+    public Map<NamespacedKey, String> getExtractionFailures() {
+        return failures;
+    }
+
+    /**
+     * Returns the stable id of the advancement with the given ordinal.
+     * <p>
+     * Unlike ordinals, which are dense and shift down when an advancement is removed, stable ids are never
+     * reassigned while the same {@link #setOrdinalFile(Path) ordinal file} is used, so they can key data that
+     * outlives a catalog. Catalogs that were not refreshed with an ordinal file use their ordinals as ids.
+     * </p>
+     *
+     * @param ordinal the ordinal, between {@code 0} and {@link #size()} (exclusive).
+     * @return the stable id.
+     * @throws IndexOutOfBoundsException if the ordinal is out of range.
+     */
+    public int getStableId(int ordinal) {
+        if (stableIds != null) return stableIds[ordinal];
+
+        if (ordinal < 0 || ordinal >= infos.length) throw new IndexOutOfBoundsException("Ordinal: " + ordinal);
+        return ordinal;
+    }
+
+    /**
+     * Returns the ordinal of the advancement with the given stable id.
+     *
+     * @param id the stable id.
+     * @return the ordinal, or {@code -1} if no advancement of this catalog has the id.
+     */
+    public int getOrdinalOfStableId(int id) {
+        if (stableIds == null) return id >= 0 && id < infos.length ? id : -1;
+
+        int[] result = stableOrdinals;
+        if (result == null) {
+            // ids are sorted by ordinal, so the last one is the largest
+            result = new int[stableIds.length == 0 ? 0 : stableIds[stableIds.length - 1] + 1];
+            Arrays.fill(result, -1);
+
+            for (int i = 0; i < stableIds.length; i++) result[stableIds[i]] = i;
+            stableOrdinals = result;
+        }
+
+        return id >= 0 && id < result.length ? result[id] : -1;
+    }
+
+    /**
+     * Returns every advancement in this catalog, ordered by ordinal.
+     *
+     * @return an unmodifiable list of advancement infos.
+     */
+    @NotNull
+    public List<AdvancementInfo> values() {
+        return values;
+    }
+
+    @NotNull
+    @Override
+    public Iterator<AdvancementInfo> iterator() {
+        return values.iterator();
+    }
+
+    /**
+     * Returns a fingerprint of the keys of this catalog and their ordinals.
+     * <p>
+     * Two catalogs with the same fingerprint assign the same ordinal to the same advancement, so data indexed
+     * by the ordinals of one of them, such as a persisted index, can be reused with the other one.
+     * </p>
+     *
+     * @return a 64-bit hash of every key, in ordinal order.
+     */
+    public long getFingerprint() {
+        long result = fingerprint;
+        if (result != 0) return result;
+
+        result = 0xcbf29ce484222325L;
+        for (AdvancementInfo info : infos) {
+            String key = info.getKey().toString();
+
+            for (int i = 0; i < key.length(); i++)
+                result = (result ^ key.charAt(i)) * 0x100000001b3L;
+            result = (result ^ '\n') * 0x100000001b3L;
+        }
+
+        return fingerprint = result == 0 ? 1 : result;
+    }
+
+    /**
+     * Returns the parent structure of this catalog, resolving it on first use.
+     *
+     * @return the advancement tree.
+     */
+    @NotNull
+    AdvancementTree getTree() {
+        AdvancementTree result = tree;
+        return result != null ? result : (tree = new AdvancementTree(this));
+    }
+
+    /**
+     * Returns the position of every advancement of this catalog on its tab, computing it on first use.
+     *
+     * @return the tree layout, indexed by ordinal.
+     */
+    @NotNull
+    public TreeLayout getLayout() {
+        TreeLayout result = layout;
+        return result != null ? result : (layout = new TreeLayout(this));
+    }
+
+    /**
+     * Returns the given sort order of the advancements of this catalog, computing it on first use.
+     * <p>
+     * Orders only hold final fields, so one computed by another thread is always seen whole; at worst, two
+     * threads compute the same order once each.
+     * </p>
+     *
+     * @param sort the sort.
+     * @return the order, with pages that cost as much as their size.
+     */
+    @NotNull
+    public CatalogOrder getOrder(@NotNull CatalogOrder.Sort sort) {
+        CatalogOrder result = orders[sort.ordinal()];
+        return result != null ? result : (orders[sort.ordinal()] = new CatalogOrder(this, sort));
+    }
+
+    /**
+     * Returns the decoded criteria of the advancement with the given ordinal.
+     * <p>
+     * The criteria of every advancement of this catalog are decoded together on first use, so later calls
+     * return the same lists without allocating.
+     * </p>
+     *
+     * @param ordinal the catalog ordinal.
+     * @return an unmodifiable list of the criteria, in the order of {@link AdvancementInfo#getCriteria()}.
+     * @throws IndexOutOfBoundsException if the ordinal is out of range.
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public List<CriterionInfo> getCriteria(int ordinal) {
+        List<CriterionInfo>[] result = criteria;
+        if (result == null) {
+            StringPool pool = new StringPool();
+            result = new List[infos.length];
+
+            for (int i = 0; i < infos.length; i++)
+                result[i] = Collections.unmodifiableList(Arrays.asList(CriterionDecoder.decode(infos[i], pool)));
+            criteria = result;
+        }
+
+        return result[ordinal];
+    }
+
+    /**
+     * Returns the completion statistics of the last {@link RarityScanner rarity scan} of this catalog.
+     *
+     * @return the statistics, or {@code null} if this catalog was never scanned.
+     */
+    @Nullable
+    public RarityStats getRarity() {
+        return rarity;
+    }
+
+    void setRarity(@NotNull RarityStats rarity) {
+        this.rarity = rarity;
+    }
+
+    /**
+     * Returns the number of internal server objects seen while building this catalog that are still reachable:
+     * advancement handles, criteria and rewards.
+     *
+     * @return the number of retained handles, always {@code 0} for catalogs not built from the server.
+     */
+    public int getRetainedHandles() {
+        int count = 0;
+        for (WeakReference<Object> reference : handles)
+            if (reference.get() != null) count++;
+        return count;
+    }
+
+    /**
+     * Waits until every internal server handle seen while building this catalog has been garbage collected.
+     * <p>
+     * This is a leak check meant to be run on a previous catalog after a datapack reload and a
+     * {@link #refresh()}: once the server replaced its advancements, nothing in this library should keep
+     * the old handles alive. Garbage collection is requested while waiting.
+     * </p>
+     *
+     * @param timeout the maximum time to wait.
+     * @param unit    the unit of the timeout.
+     * @return {@code true} if all the handles were collected; {@code false} if some are still retained.
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    public boolean awaitHandlesReleased(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        while (getRetainedHandles() > 0) {
+            if (System.nanoTime() - deadline >= 0) return false;
+
+            System.gc();
+            Thread.sleep(50);
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "AdvancementCatalog{version=" + version + ", size=" + infos.length + ", savedBytes=" + savedBytes + '}';
+    }
+
+    /**
+     * Creates a catalog from the given infos, assigning ordinals in iteration order.
+     *
+     * @param infos the advancement infos.
+     * @return a new catalog.
+     * @throws IllegalArgumentException if two infos share the same key.
+     */
+    @NotNull
+    public static AdvancementCatalog of(Collection<? extends AdvancementInfo> infos) {
+        return new AdvancementCatalog(new ArrayList<>(infos), Collections.emptyList(), null, null, Collections.emptyMap());
+    }
+
+    /**
+     * Creates a catalog from infos whose strings were deduplicated through the given pool.
+     *
+     * @param infos the advancement infos.
+     * @param pool  the pool used while building the infos.
+     * @return a new catalog.
+     */
+    @NotNull
+    static AdvancementCatalog of(List<? extends AdvancementInfo> infos, StringPool pool) {
+        return of(infos, pool, Collections.emptyMap());
+    }
+
+    /**
+     * Creates a catalog from infos whose strings were deduplicated through the given pool, with the
+     * advancements that could not be read.
+     *
+     * @param infos    the advancement infos.
+     * @param pool     the pool used while building the infos.
+     * @param failures what could not be read of each advancement, by key.
+     * @return a new catalog.
+     */
+    @NotNull
+    static AdvancementCatalog of(List<? extends AdvancementInfo> infos, StringPool pool,
+                                 Map<NamespacedKey, String> failures) {
+        return new AdvancementCatalog(infos, Collections.emptyList(), pool, null,
+                failures.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(new LinkedHashMap<>(failures)));
+    }
+
+    /**
+     * Subscribes to the refreshes of the current catalog, delivering deltas in the background.
+     *
+     * @param listener the listener of catalog deltas.
+     * @return the subscription, to be closed when no longer needed.
+     * @see #subscribe(Consumer, Executor)
+     */
+    @NotNull
+    public static CatalogSubscription subscribe(@NotNull Consumer<CatalogDelta> listener) {
+        return subscribe(listener, Platform.ioExecutor());
+    }
+
+    /**
+     * Subscribes to the refreshes of the current catalog.
+     * <p>
+     * If the current catalog was already built, the first delta reports all of its advancements as added; each
+     * later refresh delivers the differences with the last delivered catalog. Deltas are delivered one at a time
+     * on the given executor and coalesced while the listener is busy, see {@link CatalogSubscription}.
+     * </p>
+     *
+     * @param listener the listener of catalog deltas.
+     * @param executor the executor that runs the listener.
+     * @return the subscription, to be closed when no longer needed.
+     */
+    @NotNull
+    public static CatalogSubscription subscribe(@NotNull Consumer<CatalogDelta> listener, @NotNull Executor executor) {
+        return CatalogSubscription.subscribe(Objects.requireNonNull(listener), Objects.requireNonNull(executor));
+    }
+
+    /**
+     * Returns the current catalog of the server, without building it.
+     *
+     * @return the current catalog, or {@code null} if it was never built.
+     */
+    @Nullable
+    static AdvancementCatalog peek() {
+        return current;
+    }
+
+    /**
+     * Returns the current catalog of the server, building it on first use.
+     * <p>
+     * The first call must be made on the main server thread.
+     * </p>
+     *
+     * @return the current catalog.
+     */
+    @NotNull
+    public static AdvancementCatalog current() {
+        AdvancementCatalog catalog = current;
+        return catalog != null ? catalog : refresh();
+    }
+
+    /**
+     * Sets the file where the ordinal order of refreshed catalogs is persisted.
+     * <p>
+     * The file keeps the {@link #getStableId(int) stable id} of every advancement ever seen, including removed
+     * ones, so ids are never reused. Each {@link #refresh() refresh} orders the loaded advancements by id and
+     * gives new advancements the next ids, sorted by key; ordinals stay dense, so the advancements that follow
+     * a removed one still move down. The file is rewritten in the background when new ids are assigned.
+     * </p>
+     *
+     * @param file the ordinal file, or {@code null} to order refreshed catalogs by key only.
+     */
+    public static void setOrdinalFile(@Nullable Path file) {
+        ordinalFile = file;
+    }
+
+    /**
+     * Rebuilds the current catalog from every advancement loaded on the server.
+     * <p>
+     * Every advancement is converted with {@link AdvancementInfo#create(Advancement)} and then
+     * {@link AdvancementInfo#detach() detached}, sharing equal strings and keys across the whole catalog,
+     * see {@link #getSavedBytes()}. On Java 17 and newer, advancements are converted in parallel on the
+     * library workers while the calling thread waits. What could not be read is kept as the
+     * {@link #getExtractionFailures() extraction failures} of the new catalog. Subscribers are then notified of the differences. This method must be
+     * called on the main server thread, usually after a datapack reload.
+     * </p>
+     *
+     * @return the new current catalog.
+     */
+    @NotNull
+    public static synchronized AdvancementCatalog refresh() {
+        Object event = Telemetry.beginRefresh();
+
+        List<Advancement> advancements = new ArrayList<>();
+        Bukkit.advancementIterator().forEachRemaining(advancements::add);
+
+        StringPool pool = new StringPool();
+
+        // this thread waits for the conversion, so the loaded advancements are not modified meanwhile
+        List<Extracted> extracted = Platform.convert(advancements, advancement -> {
+            try {
+                return new Extracted(AdvancementImpl.create(advancement), pool);
+            } catch (Exception e) {
+                return new Extracted(advancement.getKey(), e.toString());
+            }
+        });
+
+        List<AdvancementInfo> list = new ArrayList<>(extracted.size());
+        List<WeakReference<Object>> handles = new ArrayList<>();
+        Map<NamespacedKey, String> failures = new LinkedHashMap<>();
+        int failed = 0;
+
+        for (Extracted entry : extracted) {
+            if (entry.failure != null) failures.put(entry.key, entry.failure);
+            if (entry.info == null) {
+                failed++;
+                continue;
+            }
+
+            list.add(entry.info);
+            handles.addAll(entry.handles);
+        }
+
+        Path file = ordinalFile;
+        OrdinalFile.Assignment ids = null;
+
+        if (file != null)
+            ids = OrdinalFile.sort(file, list);
+        else
+            list.sort(Comparator.comparing(info -> info.getKey().toString()));
+
+        AdvancementCatalog catalog = new AdvancementCatalog(list, handles, pool, ids == null ? null : ids.ids,
+                Collections.unmodifiableMap(failures));
+        Telemetry.endRefresh(event, catalog.version, list.size(), failed, catalog.savedBytes);
+
+        current = catalog;
+
+        List<String> table = ids == null ? null : ids.table;
+        if (table != null)
+            Platform.ioExecutor().execute(() -> {
+                // tables only grow, so a later refresh writes a table that includes this one
+                if (current != catalog) return;
+                try {
+                    OrdinalFile.write(file, table);
+                } catch (IOException e) {
+                    Bukkit.getLogger().warning("[AdvancementInfo] Could not write " + file + ": " + e);
+                }
+            });
+
+        CatalogSubscription.publish(catalog);
+
+        return catalog;
+    }
+
+    /**
+     * An advancement detached during a refresh, with the server objects it was read from and what could not be
+     * read of it.
+     */
+    private static final class Extracted {
+
+        private final NamespacedKey key;
+        private final AdvancementInfo info;
+        private final String failure;
+        private final List<WeakReference<Object>> handles = new ArrayList<>();
+
+        private Extracted(NamespacedKey key, String failure) {
+            this.key = key;
+            this.info = null;
+            this.failure = failure;
+        }
+
+        private Extracted(AdvancementInfo info, StringPool pool) {
+            this.key = info.getKey();
+            this.info = new DetachedInfo(info, pool);
+            this.failure = info instanceof AdvancementImpl ? ((AdvancementImpl) info).getFailure() : null;
+
+            // the criteria and rewards of the server must not outlive it either, so they are tracked too
+            if (info instanceof AdvancementImpl) {
+                handles.add(new WeakReference<>(((AdvancementImpl) info).handle));
+                for (Object criterion : info.getCriteria().values())
+                    if (criterion != null) handles.add(new WeakReference<>(criterion));
+                if (info.getRewards() != null) handles.add(new WeakReference<>(info.getRewards()));
+            }
+        }
+    }
+}
@@ -8,7 +8,6 @@ import org.bukkit.advancement.Advancement;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Method;
 import java.util.*;
 
 /**
@@ -46,6 +45,12 @@ abstract class AdvancementImpl implements AdvancementInfo {
      */
     private Advancement parent = null;
 
+    /**
+     * The key of the parent advancement, kept even if the parent could not be resolved through Bukkit.
+     */
+    @Nullable
+    private NamespacedKey parentKey = null;
+
     /**
      * A map containing the criteria required to achieve this advancement.
      */
@@ -64,6 +69,13 @@ abstract class AdvancementImpl implements AdvancementInfo {
     @Nullable
     private List<List<String>> requirements = null;
 
+    /**
+     * What could not be read from the server, or {@code null} if everything was.
+     */
+    @Nullable
+    @Getter(AccessLevel.PACKAGE)
+    private String failure = null;
+
     /**
      * Constructs a new {@code AdvancementImpl} instance by extracting internal data
      * from the provided Bukkit {@link Advancement} object.
@@ -71,6 +83,7 @@ abstract class AdvancementImpl implements AdvancementInfo {
      * This constructor uses reflection to:
      * <ul>
      *   <li>Obtain the internal "handle" of the advancement via the CraftBukkit implementation.</li>
+     *   <li>Read the internal fields through the accessors resolved by {@link Mappings}.</li>
      *   <li>Retrieve the rewards and criteria associated with the advancement.</li>
      *   <li>Extract the requirements, converting them into a list of lists if necessary.</li>
      *   <li>Attempt to identify and set the parent advancement using its Minecraft key.</li>
@@ -82,48 +95,34 @@ abstract class AdvancementImpl implements AdvancementInfo {
      * @param advancement the Bukkit {@link Advancement} (must not be {@code null}).
      * @throws IllegalStateException if critical reflection operations fail.
      */
-    @SuppressWarnings("all")
+    @SuppressWarnings("unchecked")
     AdvancementImpl(Advancement advancement) {
         bukkit = Objects.requireNonNull(advancement);
 
-        // Retrieve the CraftAdvancement class from Bukkit via ReflectionUtils.
-        Class<?> craft;
-        try {
-            craft = ReflectionUtils.fromBukkit("advancement.CraftAdvancement");
-        } catch (Exception e) {
-            throw new IllegalStateException(e);
-        }
+        // Obtain the internal handle through the resolved CraftAdvancement#getHandle method.
+        Mappings map = Mappings.get();
+        handle = map.getHandle(advancement);
+
+        // Unwrap the advancement from its holder on versions that have one.
+        if (map.has(Mappings.Entry.HOLDER_ADVANCEMENT))
+            handle = Objects.requireNonNull(map.get(Mappings.Entry.HOLDER_ADVANCEMENT, handle));
 
-        // Obtain the internal handle using the getHandle method.
         try {
-            Method method = Objects.requireNonNull(craft).getMethod("getHandle");
-            handle = method.invoke(craft.cast(advancement));
+            rewards = map.get(Mappings.Entry.ADVANCEMENT_REWARDS, handle);
         } catch (Exception e) {
-            throw new IllegalStateException(e);
+            fail("rewards", e);
         }
-
-        // Use FieldFinder to extract criteria, rewards, and requirements from the handle.
-        ReflectionUtils.FieldFinder find = ReflectionUtils.from(handle);
-        if (handle.getClass().getSimpleName().contains("AdvancementHolder"))
-            try {
-                handle = find.get("Advancement");
-                find = ReflectionUtils.from(handle);
-            } catch (Exception ignored) {}
-
         try {
-            rewards = find.get("AdvancementRewards");
+            Map<String, Object> found = map.get(Mappings.Entry.ADVANCEMENT_CRITERIA, handle);
+            if (found != null) criteria = found;
         } catch (Exception e) {
-            e.printStackTrace();
+            fail("criteria", e);
         }
-        try {
-            criteria = find.get(Map.class);
-        } catch (Exception ignored) {}
 
         try {
-            Object newer = find.get("AdvancementRequirements");
-            Object before = newer != null
-                    ? ReflectionUtils.from(newer).get(List.class)
-                    : find.get(String[][].class);
+            Object before = map.get(Mappings.Entry.ADVANCEMENT_REQUIREMENTS, handle);
+            if (map.has(Mappings.Entry.REQUIREMENTS_LIST))
+                before = map.get(Mappings.Entry.REQUIREMENTS_LIST, before);
 
             if (before instanceof String[][]) {
                 List<List<String>> list = new ArrayList<>();
@@ -134,19 +133,54 @@ abstract class AdvancementImpl implements AdvancementInfo {
             }
 
             requirements = (List<List<String>>) before;
-        } catch (Exception ignored) {}
+        } catch (Exception e) {
+            fail("requirements", e);
+        }
 
-        // Attempt to retrieve the parent advancement using the MinecraftKey.
+        // Attempt to retrieve the parent advancement using its internal key.
         try {
-            Class<?> keyClass = ReflectionUtils.MC_VS >= 17.0
-                    ? ReflectionUtils.clazz("net.minecraft.resources.MinecraftKey")
-                    : ReflectionUtils.getNmsClass("MinecraftKey");
+            Object internal = map.get(Mappings.Entry.ADVANCEMENT_PARENT, handle);
+            if (map.has(Mappings.Entry.ADVANCEMENT_KEY))
+                internal = map.get(Mappings.Entry.ADVANCEMENT_KEY, internal);
+
+            if (internal != null) {
+                String key = internal.toString();
+                int index = key.indexOf(':');
+
+                parentKey = index < 0 ?
+                        new NamespacedKey(NamespacedKey.MINECRAFT, key) :
+                        new NamespacedKey(key.substring(0, index), key.substring(index + 1));
+                parent = Bukkit.getAdvancement(parentKey);
+            }
+        } catch (Exception e) {
+            // without this, the advancement would look like a root
+            fail("parent", e);
+        }
+    }
 
-            Object parentKey = find.get(find.get(handle.getClass()), keyClass);
-            String namespace = (String) keyClass.getMethod("getNamespace").invoke(parentKey);
-            String key = (String) keyClass.getMethod("getKey").invoke(parentKey);
+    private void fail(String part, Exception e) {
+        String message = part + ": " + e;
+        failure = failure == null ? message : failure + ", " + message;
+    }
 
-            parent = Bukkit.getAdvancement(new NamespacedKey(namespace, key));
-        } catch (Exception ignored) {}
+    /**
+     * Creates an {@code AdvancementInfo} with the first implementation strategy that works on this server.
+     *
+     * @param advancement the Bukkit {@link Advancement} to convert.
+     * @return the advancement info.
+     * @throws Exception if no strategy could read the advancement.
+     * @see AdvancementInfo#create(Advancement)
+     */
+    @NotNull
+    static AdvancementInfo create(@NotNull Advancement advancement) throws Exception {
+        ServerVersion version = ServerVersion.current();
+        if (version.isAtLeast(1, 17, 1))
+            try {
+                return Telemetry.create(advancement, "paper", PaperInfoImpl::new);
+            } catch (Exception e) {
+                if (version.isAtLeast(1, 18))
+                    return Telemetry.create(advancement, "bukkit", BukkitInfoImpl::new);
+            }
+        return Telemetry.create(advancement, "reflect", ReflectInfoImpl::new);
     }
 }
@@ -1,12 +1,13 @@
 package me.croabeast.advancement;
 
+import org.bukkit.NamespacedKey;
 import org.bukkit.advancement.Advancement;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Represents information about a Minecraft advancement.
@@ -35,6 +36,16 @@ public interface AdvancementInfo {
     @NotNull
     Advancement getBukkit();
 
+    /**
+     * Returns the key of this advancement.
+     *
+     * @return the advancement's {@link NamespacedKey}.
+     */
+    @NotNull
+    default NamespacedKey getKey() {
+        return getBukkit().getKey();
+    }
+
     /**
      * Returns the parent advancement of this advancement, if one exists.
      *
@@ -43,6 +54,20 @@ public interface AdvancementInfo {
     @Nullable
     Advancement getParent();
 
+    /**
+     * Returns the key of the parent advancement of this advancement, if one exists.
+     * <p>
+     * The key may be available even when the parent advancement itself cannot be resolved.
+     * </p>
+     *
+     * @return the parent's {@link NamespacedKey}, or {@code null} if this advancement has no parent.
+     */
+    @Nullable
+    default NamespacedKey getParentKey() {
+        Advancement parent = getParent();
+        return parent == null ? null : parent.getKey();
+    }
+
     /**
      * Returns the title of this advancement.
      *
@@ -62,52 +87,48 @@ public interface AdvancementInfo {
     /**
      * Returns the description of this advancement formatted as an array of strings.
      * <p>
-     * The description is tokenized and split into multiple lines such that no line exceeds the specified length.
-     * Newlines are inserted where appropriate.
+     * The description is wrapped by {@link TextWrapper} so that no line is visibly wider than the given
+     * number of average-width characters of the default font. Legacy format codes are not counted towards
+     * the width, and the active color and formats are carried onto every new line.
      * </p>
      *
-     * @param length the maximum length for each line.
+     * @param length the maximum length for each line, in average-width characters.
      * @return an array of {@link String} representing the formatted description.
      */
     @NotNull
     default String[] getDescriptionArray(int length) {
+        final Object event = Telemetry.beginWrap();
         final String desc = getDescription();
 
-        StringTokenizer token = new StringTokenizer(desc, " ");
-        StringBuilder out = new StringBuilder(desc.length());
-
-        int lineLen = 0;
-        final String split = Pattern.quote("\n");
-
-        while (token.hasMoreTokens()) {
-            String word = token.nextToken();
-            int i = length - lineLen;
-
-            while (word.length() > length) {
-                out.append(word, 0, i).append(split);
-                word = word.substring(i);
-                lineLen = 0;
-            }
-
-            if (lineLen + word.length() > length) {
-                out.append(split);
-                lineLen = 0;
-            }
-
-            out.append(word).append(" ");
-            lineLen += word.length() + 1;
-        }
-
-        return out.toString().replaceAll("\\\\[QE]", "").split(split);
+        String[] lines = TextWrapper.wrap(desc, length * TextWrapper.DEFAULT_WIDTH);
+        Telemetry.endWrap(event, desc.length(), length, lines.length);
+        return lines;
     }
 
+    /**
+     * Returns the shared icon of this advancement.
+     * <p>
+     * The returned {@link ItemStack} is a shared instance that may be referenced by several advancements
+     * with an equal icon, and by the library's icon cache, so it must never be modified. It avoids a copy
+     * where the icon is only read, such as when comparing or rendering icons.
+     * </p>
+     *
+     * @return the shared {@link ItemStack} representing the advancement's icon, or {@code null} if none is defined.
+     * @see #getIcon()
+     */
+    @Nullable
+    ItemStack getSharedIcon();
+
     /**
      * Returns the icon of this advancement.
      *
-     * @return the {@link ItemStack} representing the advancement's icon, or {@code null} if none is defined.
+     * @return a modifiable copy of the {@link ItemStack} representing the advancement's icon, or {@code null} if
+     *         none is defined.
      */
     @Nullable
-    ItemStack getIcon();
+    default ItemStack getIcon() {
+        return IconCache.copy(getSharedIcon());
+    }
 
     /**
      * Indicates whether this advancement should display a toast notification.
@@ -158,7 +179,9 @@ public interface AdvancementInfo {
     /**
      * Returns the criteria required to achieve this advancement.
      * <p>
-     * The criteria are represented as a map of criterion names to their corresponding conditions.
+     * The criteria are represented as a map of criterion names to their corresponding conditions: internal
+     * server objects for infos read from the server, JSON objects for infos read from datapack files, and
+     * decoded {@link CriterionInfo} values or JSON objects for {@link #detach() detached} snapshots.
      * </p>
      *
      * @return a map of criterion names to objects representing the conditions (never {@code null}).
@@ -168,6 +191,10 @@ public interface AdvancementInfo {
 
     /**
      * Returns the rewards granted upon completing this advancement.
+     * <p>
+     * Infos read from the server return the internal rewards object; {@link #detach() detached} snapshots and
+     * infos read from datapack files return the rewards in their datapack JSON form.
+     * </p>
      *
      * @return an object representing the rewards, or {@code null} if none are defined.
      */
@@ -186,6 +213,57 @@ public interface AdvancementInfo {
     @Nullable
     List<List<String>> getRequirements();
 
+    /**
+     * Returns the fraction of players that earned this advancement, according to the last
+     * {@link RarityScanner rarity scan} of the current {@link AdvancementCatalog}.
+     *
+     * @return a value between {@code 0} and {@code 1}, or {@code -1} if no scan is available for this advancement.
+     */
+    default double getCompletionRate() {
+        AdvancementCatalog catalog = AdvancementCatalog.peek();
+        RarityStats stats = catalog == null ? null : catalog.getRarity();
+        return stats == null ? -1 : stats.getRate(this);
+    }
+
+    /**
+     * Returns how many times this advancement was completed within the given duration, up to one hour, according
+     * to the {@link CompletionCounters#active() active} completion counters.
+     *
+     * @param duration the length of the window, counted in whole minutes.
+     * @param unit     the unit of the duration.
+     * @return the number of recent completions, or {@code -1} if no counters track this advancement.
+     */
+    default long getRecentCompletions(long duration, @NotNull TimeUnit unit) {
+        CompletionCounters counters = CompletionCounters.active();
+        return counters == null ? -1 : counters.getRecent(this, duration, unit);
+    }
+
+    /**
+     * Indicates whether this info is a detached snapshot that holds no internal server objects.
+     *
+     * @return {@code true} if this info is detached; {@code false} otherwise.
+     * @see #detach()
+     */
+    default boolean isDetached() {
+        return false;
+    }
+
+    /**
+     * Returns a detached snapshot of this advancement info.
+     * <p>
+     * The snapshot copies out the display data, criteria, rewards and requirements, and drops every
+     * reference to the internal advancement handle and to the Bukkit {@link Advancement} wrapper, so
+     * caching it does not keep old advancement graphs alive after a datapack reload. The Bukkit
+     * advancement and its parent are looked up again by key when requested.
+     * </p>
+     *
+     * @return a detached snapshot, or this instance if it is already detached.
+     */
+    @NotNull
+    default AdvancementInfo detach() {
+        return isDetached() ? this : new DetachedInfo(this);
+    }
+
     /**
      * Creates an {@code AdvancementInfo} instance from a given Bukkit {@link Advancement}.
      * <p>
@@ -199,19 +277,27 @@ public interface AdvancementInfo {
     @Nullable
     static AdvancementInfo create(@NotNull Advancement advancement) {
         try {
-            if (ReflectionUtils.MC_VS >= 17.1)
-                try {
-                    return new PaperInfoImpl(advancement);
-                } catch (Exception e) {
-                    if (ReflectionUtils.MC_VS >= 18)
-                        return new BukkitInfoImpl(advancement);
-                }
-            return new ReflectInfoImpl(advancement);
+            return AdvancementImpl.create(advancement);
         } catch (Exception e) {
             return null;
         }
     }
 
+    /**
+     * Resolves and validates every reflective accessor required by the running server version.
+     * <p>
+     * The accessors are loaded from a bundled mapping table and resolved only once; any accessor that
+     * cannot be found is reported as a single warning. Calling this method during startup ensures that
+     * the resolution cost is not paid by the first {@link #create(Advancement)} call.
+     * </p>
+     *
+     * @return the names of the accessors that could not be resolved, empty if all of them were found.
+     */
+    @NotNull
+    static List<String> validate() {
+        return Mappings.get().getMissing();
+    }
+
     /**
      * Enum representing the different frame types available for advancements.
      */
@@ -0,0 +1,332 @@
+package me.croabeast.advancement;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.advancement.Advancement;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * A page model for advancement browsing menus, rendered once per {@link AdvancementCatalog catalog}.
+ * <p>
+ * For every advancement of a catalog, the menu builds the item templates of each {@link State}: the icon with
+ * the title as display name and the description, wrapped to the lore width, as lore. It also splits the catalog
+ * and each of its tabs into pages of slots, tabs in tree order. Both are computed on first use of a catalog, or
+ * ahead of time with {@link #prepare(AdvancementCatalog)}, and reused by every player.
+ * </p>
+ * <p>
+ * Opening a page only picks, for each slot, the template matching the player's progress and copies it, so no
+ * text is wrapped and no meta is built. Secret advancements follow the vanilla screen when a
+ * {@link VisibilityCache} is given, and the {@link AdvancementInfo#isHidden() hidden} flag otherwise. Templates
+ * returned by {@link #getTemplate(AdvancementCatalog, int, State)} are shared and must be treated as read-only.
+ * </p>
+ */
+public final class AdvancementMenu {
+
+    /**
+     * The variants of the item of an advancement, chosen per player when a page is opened.
+     */
+    public enum State {
+        /**
+         * The player completed the advancement.
+         */
+        DONE,
+        /**
+         * The player did not complete the advancement yet.
+         */
+        LOCKED,
+        /**
+         * The player did not complete a {@link AdvancementInfo#isHidden() hidden} advancement, whose title,
+         * description and icon are not shown.
+         */
+        SECRET
+    }
+
+    private static final String SECRET_NAME = ChatColor.DARK_GRAY + "???";
+
+    private final int pageSize;
+    private final int loreWidth;
+    private final AnnouncementTemplate doneName, lockedName;
+
+    private final Map<AdvancementCatalog, Rendered> rendered = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Creates a menu model with custom display names.
+     * <p>
+     * The names are compiled as {@link AnnouncementTemplate announcement templates}, so they support the
+     * {@code {title}}, {@code {description}}, {@code {frame}} and {@code {key}} placeholders and legacy colors.
+     * </p>
+     *
+     * @param pageSize   the number of slots of each page.
+     * @param loreWidth  the maximum length of each lore line, in average-width characters.
+     * @param doneName   the display name pattern of completed advancements.
+     * @param lockedName the display name pattern of advancements not completed yet.
+     */
+    public AdvancementMenu(int pageSize, int loreWidth, @NotNull String doneName, @NotNull String lockedName) {
+        if (pageSize < 1) throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+
+        this.pageSize = pageSize;
+        this.loreWidth = loreWidth;
+        this.doneName = AnnouncementTemplate.compile(doneName);
+        this.lockedName = AnnouncementTemplate.compile(lockedName);
+    }
+
+    /**
+     * Creates a menu model showing completed titles in green and others in gray.
+     *
+     * @param pageSize  the number of slots of each page.
+     * @param loreWidth the maximum length of each lore line, in average-width characters.
+     */
+    public AdvancementMenu(int pageSize, int loreWidth) {
+        this(pageSize, loreWidth, "&a{title}", "&7{title}");
+    }
+
+    private Rendered render(AdvancementCatalog catalog) {
+        Rendered result = rendered.get(catalog);
+        Telemetry.cache("menus", result != null);
+        if (result != null) return result;
+
+        result = new Rendered(catalog);
+        rendered.put(catalog, result);
+        return result;
+    }
+
+    /**
+     * Renders the templates and pages of the given catalog, so the first menu opened on it does not.
+     *
+     * @param catalog the catalog.
+     */
+    public void prepare(@NotNull AdvancementCatalog catalog) {
+        render(catalog);
+    }
+
+    /**
+     * Returns the number of pages of the given tab, or of the whole catalog.
+     *
+     * @param catalog the catalog.
+     * @param tab     the key of any advancement of the tab, or {@code null} for every advancement of the catalog.
+     * @return the number of pages, {@code 0} if the tab is not in the catalog.
+     */
+    public int getPageCount(@NotNull AdvancementCatalog catalog, @Nullable NamespacedKey tab) {
+        return render(catalog).pages(catalog, tab).length;
+    }
+
+    /**
+     * Returns the ordinals of the advancements of a page, in slot order.
+     *
+     * @param catalog the catalog.
+     * @param tab     the key of any advancement of the tab, or {@code null} for every advancement of the catalog.
+     * @param page    the page index.
+     * @return a copy of the ordinals of the page, which may be shorter than the page size on the last page.
+     * @throws IndexOutOfBoundsException if the page does not exist.
+     */
+    @NotNull
+    public int[] getPage(@NotNull AdvancementCatalog catalog, @Nullable NamespacedKey tab, int page) {
+        return render(catalog).pages(catalog, tab)[page].clone();
+    }
+
+    /**
+     * Returns the shared item template of the given advancement.
+     *
+     * @param catalog the catalog.
+     * @param ordinal the ordinal of the advancement.
+     * @param state   the variant of the item.
+     * @return the read-only template.
+     */
+    @NotNull
+    public ItemStack getTemplate(@NotNull AdvancementCatalog catalog, int ordinal, @NotNull State state) {
+        return render(catalog).templates[state.ordinal()][ordinal];
+    }
+
+    /**
+     * Returns the variant of the item of the given advancement for the given player, keeping secret only the
+     * {@link AdvancementInfo#isHidden() hidden} advancements the player did not complete.
+     *
+     * @param player the player.
+     * @param info   the advancement.
+     * @return the state of the advancement for the player.
+     */
+    @NotNull
+    public static State getState(@NotNull Player player, @NotNull AdvancementInfo info) {
+        return getState(player, info, null);
+    }
+
+    /**
+     * Returns the variant of the item of the given advancement for the given player.
+     * <p>
+     * With a visibility cache, every advancement the player cannot see in the vanilla screen is secret, as
+     * decided for the {@link AdvancementCatalog#current() current catalog}.
+     * </p>
+     *
+     * @param player     the player.
+     * @param info       the advancement.
+     * @param visibility the visibility cache of the player, or {@code null} to only use the hidden flag.
+     * @return the state of the advancement for the player.
+     */
+    @NotNull
+    public static State getState(@NotNull Player player, @NotNull AdvancementInfo info,
+                                 @Nullable VisibilityCache visibility) {
+        boolean done;
+        try {
+            Advancement advancement = info.getBukkit();
+            done = advancement != null && player.getAdvancementProgress(advancement).isDone();
+        } catch (IllegalStateException e) {
+            done = false;
+        }
+
+        if (done) return State.DONE;
+
+        boolean secret = visibility != null ? !visibility.isVisible(player, info) : info.isHidden();
+        return secret ? State.SECRET : State.LOCKED;
+    }
+
+    /**
+     * Fills the slots of a page with the items of its advancements for the given player.
+     * <p>
+     * This method reads the progress of the player, so it must be called on the main server thread.
+     * </p>
+     *
+     * @param player  the player opening the page.
+     * @param catalog the catalog.
+     * @param tab     the key of any advancement of the tab, or {@code null} for every advancement of the catalog.
+     * @param page    the page index.
+     * @return copies of the templates of the page, one per slot, with {@code null} for slots after the last
+     * advancement.
+     * @throws IndexOutOfBoundsException if the page does not exist.
+     * @see #open(Player, AdvancementCatalog, NamespacedKey, int, VisibilityCache)
+     */
+    @NotNull
+    public ItemStack[] open(@NotNull Player player, @NotNull AdvancementCatalog catalog, @Nullable NamespacedKey tab, int page) {
+        return open(player, catalog, tab, page, null);
+    }
+
+    /**
+     * Fills the slots of a page with the items of its advancements for the given player, showing as secret
+     * every advancement the given cache reports as not visible.
+     * <p>
+     * This method reads the progress of the player, so it must be called on the main server thread.
+     * </p>
+     *
+     * @param player     the player opening the page.
+     * @param catalog    the catalog.
+     * @param tab        the key of any advancement of the tab, or {@code null} for every advancement of the catalog.
+     * @param page       the page index.
+     * @param visibility the visibility cache, or {@code null} to only keep hidden advancements secret.
+     * @return copies of the templates of the page, one per slot, with {@code null} for slots after the last
+     * advancement.
+     * @throws IndexOutOfBoundsException if the page does not exist.
+     */
+    @NotNull
+    public ItemStack[] open(@NotNull Player player, @NotNull AdvancementCatalog catalog, @Nullable NamespacedKey tab,
+                            int page, @Nullable VisibilityCache visibility) {
+        Rendered result = render(catalog);
+        int[] ordinals = result.pages(catalog, tab)[page];
+
+        ItemStack[] items = new ItemStack[pageSize];
+        for (int i = 0; i < ordinals.length; i++) {
+            int ordinal = ordinals[i];
+            State state = getState(player, catalog.get(ordinal), visibility);
+            items[i] = result.templates[state.ordinal()][ordinal].clone();
+        }
+        return items;
+    }
+
+    @Override
+    public String toString() {
+        return "AdvancementMenu{pageSize=" + pageSize + ", loreWidth=" + loreWidth + ", catalogs=" + rendered.size() + '}';
+    }
+
+    /**
+     * The templates and pages of a single catalog, which they must not reference so it can be collected.
+     */
+    private final class Rendered {
+
+        /**
+         * The templates of every advancement, indexed by state and then by ordinal.
+         */
+        private final ItemStack[][] templates;
+
+        private final int[][] all;
+
+        /**
+         * The pages of each tab, indexed by the ordinal of its root; {@code null} for advancements that are not roots.
+         */
+        private final int[][][] tabs;
+
+        private Rendered(AdvancementCatalog catalog) {
+            int size = catalog.size();
+            templates = new ItemStack[State.values().length][size];
+
+            ItemStack secret = item(null, SECRET_NAME, Collections.emptyList());
+            for (int i = 0; i < size; i++) {
+                AdvancementInfo info = catalog.get(i);
+                List<String> lore = lore(info);
+
+                templates[State.DONE.ordinal()][i] = item(info.getSharedIcon(), doneName.prepare(info).format(""), lore);
+                templates[State.LOCKED.ordinal()][i] = item(info.getSharedIcon(), lockedName.prepare(info).format(""), lore);
+                templates[State.SECRET.ordinal()][i] = secret;
+            }
+
+            int[] ordinals = new int[size];
+            for (int i = 0; i < size; i++) ordinals[i] = i;
+            all = paginate(ordinals, size);
+
+            AdvancementTree tree = catalog.getTree();
+            tabs = new int[size][][];
+
+            for (int root = 0; root < size; root++) {
+                if (tree.getParent(root) >= 0) continue;
+
+                int count = 0;
+                for (int i = root; i >= 0; i = tree.next(root, i)) ordinals[count++] = i;
+
+                tabs[root] = paginate(ordinals, count);
+            }
+        }
+
+        private List<String> lore(AdvancementInfo info) {
+            if (info.getDescription().isEmpty()) return Collections.emptyList();
+
+            List<String> lore = new ArrayList<>();
+            for (String line : TextWrapper.wrap("&7" + info.getDescription(), loreWidth * TextWrapper.DEFAULT_WIDTH))
+                lore.add(ChatColor.translateAlternateColorCodes('&', line));
+
+            return Collections.unmodifiableList(lore);
+        }
+
+        private ItemStack item(@Nullable ItemStack icon, String name, List<String> lore) {
+            ItemStack item = icon == null ? new ItemStack(Material.PAPER) : icon.clone();
+
+            ItemMeta meta = item.getItemMeta();
+            if (meta == null) return item;
+
+            meta.setDisplayName(name);
+            meta.setLore(lore.isEmpty() ? null : lore);
+            item.setItemMeta(meta);
+            return item;
+        }
+
+        private int[][] paginate(int[] ordinals, int count) {
+            int[][] pages = new int[(count + pageSize - 1) / pageSize][];
+
+            for (int i = 0; i < pages.length; i++) {
+                int from = i * pageSize;
+                pages[i] = Arrays.copyOfRange(ordinals, from, Math.min(from + pageSize, count));
+            }
+            return pages;
+        }
+
+        private int[][] pages(AdvancementCatalog catalog, @Nullable NamespacedKey tab) {
+            if (tab == null) return all;
+
+            int ordinal = catalog.getOrdinal(tab);
+            return ordinal < 0 ? new int[0][] : tabs[catalog.getTree().getRoot(ordinal)];
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package me.croabeast.advancement;
+
+import org.bukkit.NamespacedKey;
+
+import java.util.Arrays;
+
+/**
+ * The parent structure of an {@link AdvancementCatalog}, resolved to catalog ordinals.
+ * <p>
+ * Every advancement is linked to the ordinal of its parent and of the root of its tab, so walking the tree
+ * never hashes keys. Parents missing from the catalog make an advancement a root, and parent cycles are
+ * broken at the advancement that closes them.
+ * </p>
+ */
+final class AdvancementTree {
+
+    private final int[] parents;
+    private final int[] roots;
+    private final int[] depths;
+
+    private final int[] firstChildren;
+    private final int[] nextSiblings;
+
+    AdvancementTree(AdvancementCatalog catalog) {
+        int size = catalog.size();
+        parents = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            NamespacedKey key = catalog.get(i).getParentKey();
+            parents[i] = key == null ? -1 : catalog.getOrdinal(key);
+        }
+
+        roots = new int[size];
+        depths = new int[size];
+        Arrays.fill(roots, -1);
+
+        for (int i = 0; i < size; i++) resolve(i);
+
+        firstChildren = new int[size];
+        nextSiblings = new int[size];
+        Arrays.fill(firstChildren, -1);
+
+        // linked in reverse, so children are iterated in ordinal order
+        for (int i = size - 1; i >= 0; i--) {
+            int parent = parents[i];
+            if (parent < 0) {
+                nextSiblings[i] = -1;
+                continue;
+            }
+
+            nextSiblings[i] = firstChildren[parent];
+            firstChildren[parent] = i;
+        }
+    }
+
+    private void resolve(int ordinal) {
+        if (roots[ordinal] >= 0) return;
+
+        int current = ordinal, steps = 0;
+        while (parents[current] >= 0 && roots[current] < 0 && steps < parents.length) {
+            current = parents[current];
+            steps++;
+        }
+
+        // the walk never ended, so it is now looping inside a cycle: break it here
+        if (steps >= parents.length) parents[current] = -1;
+
+        int root = roots[current] >= 0 ? roots[current] : current;
+        int depth = roots[current] >= 0 ? depths[current] : 0;
+
+        if (roots[current] < 0) {
+            roots[current] = current;
+            depths[current] = 0;
+        }
+
+        // second walk, assigning depths from the resolved ancestor downwards
+        int length = 0;
+        for (int i = ordinal; i != current; i = parents[i]) length++;
+
+        for (int i = ordinal; i != current; i = parents[i]) {
+            roots[i] = root;
+            depths[i] = depth + length--;
+        }
+    }
+
+    /**
+     * Returns the number of advancements in the tree.
+     *
+     * @return the tree size.
+     */
+    int size() {
+        return parents.length;
+    }
+
+    /**
+     * Returns the ordinal of the parent of the given advancement.
+     *
+     * @param ordinal the catalog ordinal.
+     * @return the parent ordinal, or {@code -1} if the advancement is a root.
+     */
+    int getParent(int ordinal) {
+        return parents[ordinal];
+    }
+
+    /**
+     * Returns the ordinal of the root of the tab that holds the given advancement.
+     *
+     * @param ordinal the catalog ordinal.
+     * @return the root ordinal, the same ordinal for roots.
+     */
+    int getRoot(int ordinal) {
+        return roots[ordinal];
+    }
+
+    /**
+     * Returns the ordinal of the first child of the given advancement.
+     *
+     * @param ordinal the catalog ordinal.
+     * @return the first child ordinal, or {@code -1} if the advancement has no children.
+     * @see #getNextSibling(int)
+     */
+    int getFirstChild(int ordinal) {
+        return firstChildren[ordinal];
+    }
+
+    /**
+     * Returns the ordinal of the next child of the parent of the given advancement.
+     *
+     * @param ordinal the catalog ordinal.
+     * @return the next sibling ordinal, or {@code -1} if the advancement is the last child or a root.
+     */
+    int getNextSibling(int ordinal) {
+        return nextSiblings[ordinal];
+    }
+
+    /**
+     * Returns the advancement that follows the given one in a pre-order walk of a subtree, so every advancement
+     * comes after its parent and children follow in ordinal order. The walk climbs back through the parents
+     * instead of keeping a stack.
+     *
+     * @param root    the ordinal the walk started at.
+     * @param ordinal the current ordinal, inside the subtree of the root.
+     * @return the next ordinal, or {@code -1} once the whole subtree was walked.
+     */
+    int next(int root, int ordinal) {
+        int child = firstChildren[ordinal];
+        if (child >= 0) return child;
+
+        while (ordinal != root && nextSiblings[ordinal] < 0) ordinal = parents[ordinal];
+        return ordinal == root ? -1 : nextSiblings[ordinal];
+    }
+
+    /**
+     * Returns the distance between the given advancement and the root of its tab.
+     *
+     * @param ordinal the catalog ordinal.
+     * @return the depth, {@code 0} for roots.
+     */
+    int getDepth(int ordinal) {
+        return depths[ordinal];
+    }
+}
@@ -0,0 +1,213 @@
+package me.croabeast.advancement;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * A precompiled message template for advancement announcements.
+ * <p>
+ * The template pattern is parsed once into a list of literal and placeholder segments. Supported placeholders
+ * are {@code {title}}, {@code {description}}, {@code {frame}}, {@code {key}} and {@code {player}}; any other
+ * text between braces is kept literally. Legacy {@code &} color codes are translated once as well.
+ * </p>
+ * <p>
+ * Every advancement-related part is rendered only once per {@link AdvancementInfo} and cached as a
+ * {@link Prepared} template, so sending an announcement only splices the player's name into a few
+ * precomputed strings.
+ * </p>
+ *
+ * @see Announcer
+ */
+public final class AnnouncementTemplate {
+
+    /**
+     * The raw pattern this template was compiled from.
+     */
+    @Getter
+    private final String pattern;
+
+    /**
+     * The compiled segments: either a literal {@link String} or a {@link Placeholder}.
+     */
+    private final Object[] segments;
+
+    /**
+     * The prepared templates of every advancement announced so far, weakly keyed by info.
+     */
+    private final Map<AdvancementInfo, Prepared> prepared = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * The placeholders supported by announcement templates.
+     */
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private enum Placeholder {
+        TITLE("title"),
+        DESCRIPTION("description"),
+        FRAME("frame"),
+        KEY("key"),
+        PLAYER("player");
+
+        private final String name;
+
+        private String resolve(AdvancementInfo info) {
+            switch (this) {
+                case TITLE:
+                    return color(info.getTitle());
+                case DESCRIPTION:
+                    return color(info.getDescription());
+                case FRAME:
+                    return info.getFrame().name().toLowerCase(Locale.ENGLISH);
+                case KEY:
+                    return info.getKey().toString();
+                default:
+                    return null;
+            }
+        }
+
+        private static Placeholder fromName(String name) {
+            for (Placeholder placeholder : values())
+                if (placeholder.name.equals(name)) return placeholder;
+            return null;
+        }
+    }
+
+    private AnnouncementTemplate(String pattern) {
+        this.pattern = pattern;
+
+        List<Object> list = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int index = 0;
+        while (index < pattern.length()) {
+            int start = pattern.indexOf('{', index);
+            int end = start < 0 ? -1 : pattern.indexOf('}', start);
+
+            if (end < 0) {
+                literal.append(pattern, index, pattern.length());
+                break;
+            }
+
+            // a stray brace is literal text, so the placeholder starts at the last brace before the end
+            start = pattern.lastIndexOf('{', end);
+
+            Placeholder placeholder = Placeholder.fromName(pattern.substring(start + 1, end));
+            if (placeholder == null) {
+                literal.append(pattern, index, end + 1);
+                index = end + 1;
+                continue;
+            }
+
+            literal.append(pattern, index, start);
+            if (literal.length() > 0) {
+                list.add(color(literal.toString()));
+                literal.setLength(0);
+            }
+
+            list.add(placeholder);
+            index = end + 1;
+        }
+
+        if (literal.length() > 0) list.add(color(literal.toString()));
+        segments = list.toArray();
+    }
+
+    private static String color(String text) {
+        return ChatColor.translateAlternateColorCodes('&', text);
+    }
+
+    /**
+     * Returns the prepared template of the given advancement, rendering it on first use.
+     *
+     * @param info the advancement info.
+     * @return the prepared template, with only the player-related parts left.
+     */
+    @NotNull
+    public Prepared prepare(@NotNull AdvancementInfo info) {
+        Prepared result = prepared.get(info);
+        Telemetry.cache("announcements", result != null);
+        if (result != null) return result;
+
+        List<String> parts = new ArrayList<>();
+        StringBuilder builder = new StringBuilder();
+
+        for (Object segment : segments) {
+            if (segment == Placeholder.PLAYER) {
+                parts.add(builder.toString());
+                builder.setLength(0);
+                continue;
+            }
+
+            builder.append(segment instanceof Placeholder ?
+                    ((Placeholder) segment).resolve(info) :
+                    (String) segment);
+        }
+
+        parts.add(builder.toString());
+
+        result = new Prepared(parts.toArray(new String[0]));
+        prepared.put(info, result);
+        return result;
+    }
+
+    /**
+     * Formats the announcement of the given advancement for the given player.
+     *
+     * @param info   the completed advancement.
+     * @param player the player that completed it.
+     * @return the formatted announcement.
+     */
+    @NotNull
+    public String format(@NotNull AdvancementInfo info, @NotNull Player player) {
+        return prepare(info).format(player.getName());
+    }
+
+    /**
+     * Compiles the given pattern into a template.
+     *
+     * @param pattern the pattern, with placeholders between braces.
+     * @return the compiled template.
+     */
+    @NotNull
+    public static AnnouncementTemplate compile(@NotNull String pattern) {
+        return new AnnouncementTemplate(Objects.requireNonNull(pattern));
+    }
+
+    /**
+     * An announcement template with every advancement-related part already rendered.
+     * <p>
+     * The remaining parts are joined with the player's name, so formatting costs a single
+     * pre-sized string concatenation.
+     * </p>
+     */
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Prepared {
+
+        private final String[] parts;
+
+        /**
+         * Formats this announcement for the player with the given name.
+         *
+         * @param player the player's name.
+         * @return the formatted announcement.
+         */
+        @NotNull
+        public String format(@NotNull String player) {
+            if (parts.length == 1) return parts[0];
+
+            int length = player.length() * (parts.length - 1);
+            for (String part : parts) length += part.length();
+
+            StringBuilder builder = new StringBuilder(length).append(parts[0]);
+            for (int i = 1; i < parts.length; i++)
+                builder.append(player).append(parts[i]);
+
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package me.croabeast.advancement;
+
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerAdvancementDoneEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Broadcasts custom announcements when players complete advancements, using an {@link AnnouncementTemplate}.
+ * <p>
+ * Completions are looked up in the {@link AdvancementCatalog#current() current catalog}, formatted from their
+ * prepared templates, and queued. The queue is flushed once on the next tick, so every completion of the same
+ * tick is delivered to each recipient in a single batched {@link Player#sendMessage(String...)} call.
+ * </p>
+ * <p>
+ * By default, only advancements that {@link AdvancementInfo#doesAnnounceToChat() announce to chat} are
+ * broadcast. All methods must be called on the main server thread.
+ * </p>
+ *
+ * @see AnnouncementTemplate
+ */
+public final class Announcer implements Listener {
+
+    private final Plugin plugin;
+
+    /**
+     * The template used to format every announcement.
+     */
+    @Getter
+    private final AnnouncementTemplate template;
+
+    private final Predicate<AdvancementInfo> filter;
+    private final List<String> queue = new ArrayList<>();
+
+    private boolean registered = false, scheduled = false;
+
+    /**
+     * Creates an announcer that broadcasts the advancements accepted by the given filter.
+     *
+     * @param plugin   the plugin that owns the listener and the flush task.
+     * @param template the template used to format every announcement.
+     * @param filter   the filter of advancements to announce.
+     */
+    public Announcer(@NotNull Plugin plugin, @NotNull AnnouncementTemplate template, @NotNull Predicate<AdvancementInfo> filter) {
+        this.plugin = Objects.requireNonNull(plugin);
+        this.template = Objects.requireNonNull(template);
+        this.filter = Objects.requireNonNull(filter);
+    }
+
+    /**
+     * Creates an announcer that broadcasts the advancements that announce to chat.
+     *
+     * @param plugin   the plugin that owns the listener and the flush task.
+     * @param template the template used to format every announcement.
+     */
+    public Announcer(@NotNull Plugin plugin, @NotNull AnnouncementTemplate template) {
+        this(plugin, template, AdvancementInfo::doesAnnounceToChat);
+    }
+
+    /**
+     * Registers this announcer as a listener of advancement completions.
+     *
+     * @return this announcer.
+     */
+    @NotNull
+    public Announcer register() {
+        if (!registered) {
+            Bukkit.getPluginManager().registerEvents(this, plugin);
+            registered = true;
+        }
+        return this;
+    }
+
+    /**
+     * Stops listening to advancement completions, delivering any queued announcement first.
+     */
+    public void unregister() {
+        if (!registered) return;
+
+        HandlerList.unregisterAll(this);
+        registered = false;
+        flush();
+    }
+
+    /**
+     * Queues the announcement of the given completion, to be delivered on the next tick.
+     *
+     * @param player the player that completed the advancement.
+     * @param info   the completed advancement.
+     */
+    public void announce(@NotNull Player player, @NotNull AdvancementInfo info) {
+        queue.add(template.prepare(info).format(player.getName()));
+        if (scheduled) return;
+
+        scheduled = true;
+        Bukkit.getScheduler().runTask(plugin, this::flush);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onCompletion(PlayerAdvancementDoneEvent event) {
+        AdvancementInfo info = AdvancementCatalog.current().get(event.getAdvancement().getKey());
+        if (info != null && filter.test(info))
+            announce(event.getPlayer(), info);
+    }
+
+    /**
+     * Delivers every queued announcement to all online players and the console.
+     */
+    public void flush() {
+        scheduled = false;
+        if (queue.isEmpty()) return;
+
+        String[] messages = queue.toArray(new String[0]);
+        queue.clear();
+
+        for (Player player : Bukkit.getOnlinePlayers())
+            player.sendMessage(messages);
+
+        Bukkit.getConsoleSender().sendMessage(messages);
+    }
+}
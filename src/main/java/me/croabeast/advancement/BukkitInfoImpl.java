@@ -41,10 +41,10 @@ final class BukkitInfoImpl extends AdvancementImpl {
     private final String description;
 
     /**
-     * The icon representing the advancement.
+     * The shared icon representing the advancement.
      */
     @Nullable
-    private final ItemStack icon;
+    private final ItemStack sharedIcon;
 
     /**
      * Indicates whether the advancement should show a toast notification.
@@ -103,7 +103,7 @@ final class BukkitInfoImpl extends AdvancementImpl {
 
         this.title = display.getTitle();
         this.description = display.getDescription();
-        this.icon = display.getIcon();
+        this.sharedIcon = IconCache.share(display.getIcon());
         this.showToast = display.shouldShowToast();
         this.announceChat = display.shouldAnnounceChat();
         this.hidden = display.isHidden();
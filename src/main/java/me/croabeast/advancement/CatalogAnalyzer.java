@@ -0,0 +1,187 @@
+package me.croabeast.advancement;
+
+import lombok.experimental.UtilityClass;
+import me.croabeast.advancement.CatalogReport.Issue;
+import me.croabeast.advancement.CatalogReport.Problem;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/**
+ * Utility class that checks the integrity of every advancement of a catalog.
+ * <p>
+ * A broken datapack only shows up later as a missing menu entry, and what the library cannot read from the
+ * server silently becomes a {@code null} parent or an empty map. The analyzer reports the
+ * {@link AdvancementCatalog#getExtractionFailures() extraction failures} of the catalog, advancements without
+ * criteria, requirements naming unknown criteria, missing icons and titles, titles that fell back to the one
+ * humanized from the key, unresolved parents and parent cycles.
+ * </p>
+ * <p>
+ * The server refuses advancements with a missing parent or in a cycle, so catalogs of the server never have
+ * them; those are found by analyzing the raw datapack sources, read with {@link DatapackLoader}, against the
+ * advancements the server already has, see {@link #analyze(AdvancementCatalog, AdvancementCatalog)}.
+ * </p>
+ * <p>
+ * Advancements are checked in parallel on the library's fork-join pool; only the cycle search, a single linear
+ * walk over the parent ordinals, runs sequentially. Analyses never run on the calling thread.
+ * </p>
+ *
+ * @see CatalogReport
+ */
+@UtilityClass
+public class CatalogAnalyzer {
+
+    /**
+     * Analyzes the given catalog.
+     *
+     * @param catalog the catalog to analyze.
+     * @return a future completed with the report.
+     */
+    @NotNull
+    public CompletableFuture<CatalogReport> analyze(@NotNull AdvancementCatalog catalog) {
+        return analyze(catalog, null);
+    }
+
+    /**
+     * Analyzes the given catalog, resolving parents it does not hold in another one.
+     * <p>
+     * This checks datapack sources before the server loads them: parents may be advancements of the server or
+     * of other datapacks, such as vanilla ones, which the sources do not hold themselves.
+     * </p>
+     *
+     * @param catalog the catalog to analyze, such as one read with {@link DatapackLoader}.
+     * @param known   the catalog where parents missing from the analyzed one are resolved, or {@code null}.
+     * @return a future completed with the report.
+     */
+    @NotNull
+    public CompletableFuture<CatalogReport> analyze(@NotNull AdvancementCatalog catalog,
+                                                    @Nullable AdvancementCatalog known) {
+        return Workers.supply(() -> {
+            long start = System.nanoTime();
+            int size = catalog.size();
+
+            int[] parents = new int[size];
+            @SuppressWarnings("unchecked")
+            List<Issue>[] found = new List[size];
+
+            IntStream.range(0, size).parallel().forEach(i -> found[i] = check(catalog, known, i, parents));
+
+            int[] cycles = findCycles(parents);
+
+            List<Issue> issues = new ArrayList<>();
+            int[] counts = new int[Problem.values().length];
+
+            Map<NamespacedKey, String> failures = catalog.getExtractionFailures();
+            for (int i = 0; i < size; i++) {
+                NamespacedKey key = catalog.get(i).getKey();
+
+                String failure = failures.get(key);
+                if (failure != null) issues.add(new Issue(i, key, Problem.EXTRACTION_FAILED, failure));
+
+                // an advancement in a cycle has a resolved parent, so this keeps the issues ordered by problem
+                if (cycles[i] > 0) issues.add(new Issue(i, key, Problem.CYCLE, cycles[i] + " advancements"));
+
+                if (found[i] != null) issues.addAll(found[i]);
+            }
+
+            for (Map.Entry<NamespacedKey, String> entry : failures.entrySet())
+                if (catalog.getOrdinal(entry.getKey()) < 0)
+                    issues.add(new Issue(-1, entry.getKey(), Problem.EXTRACTION_FAILED, entry.getValue()));
+
+            for (Issue issue : issues) counts[issue.getProblem().ordinal()]++;
+            return new CatalogReport(catalog, issues, counts, System.nanoTime() - start);
+        });
+    }
+
+    private List<Issue> check(AdvancementCatalog catalog, AdvancementCatalog known, int ordinal, int[] parents) {
+        AdvancementInfo info = catalog.get(ordinal);
+        NamespacedKey key = info.getKey();
+        List<Issue> issues = null;
+
+        // parents resolved in the known catalog end the walk there, since the server already accepted them
+        NamespacedKey parent = info.getParentKey();
+        parents[ordinal] = parent == null ? -1 : catalog.getOrdinal(parent);
+        if (parent != null && parents[ordinal] < 0 && (known == null || known.getOrdinal(parent) < 0))
+            issues = add(issues, new Issue(ordinal, key, Problem.UNRESOLVED_PARENT, parent.toString()));
+
+        Map<String, Object> criteria = info.getCriteria();
+        if (criteria == null || criteria.isEmpty())
+            issues = add(issues, new Issue(ordinal, key, Problem.MISSING_CRITERIA, null));
+
+        List<List<String>> requirements = info.getRequirements();
+        if (requirements != null)
+            for (List<String> requirement : requirements)
+                for (String name : requirement)
+                    if (criteria == null || !criteria.containsKey(name))
+                        issues = add(issues, new Issue(ordinal, key, Problem.UNKNOWN_REQUIREMENT, name));
+
+        ItemStack icon = info.getSharedIcon();
+        if (icon == null || icon.getType() == Material.AIR)
+            issues = add(issues, new Issue(ordinal, key, Problem.MISSING_ICON, null));
+
+        String title = info.getTitle();
+        if (title == null || title.trim().isEmpty())
+            issues = add(issues, new Issue(ordinal, key, Problem.MISSING_TITLE, null));
+        else if (title.equals(DatapackLoader.defaultTitle(key)) || title.equals(key.toString()))
+            issues = add(issues, new Issue(ordinal, key, Problem.FALLBACK_TITLE, title));
+
+        return issues;
+    }
+
+    private List<Issue> add(List<Issue> issues, Issue issue) {
+        if (issues == null) issues = new ArrayList<>(2);
+        issues.add(issue);
+        return issues;
+    }
+
+    /**
+     * Finds the advancements that are part of a parent cycle.
+     *
+     * @param parents the parent ordinals, {@code -1} for roots and unresolved parents.
+     * @return the size of the cycle of each advancement, {@code 0} if it is not part of one.
+     */
+    private int[] findCycles(int[] parents) {
+        int size = parents.length;
+        int[] cycles = new int[size];
+
+        // 0 is unvisited, -1 is done, and a walk marks what it visits with its own positive id
+        int[] states = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            if (states[i] != 0) continue;
+
+            int id = i + 1, current = i;
+            while (current >= 0 && states[current] == 0) {
+                states[current] = id;
+                current = parents[current];
+            }
+
+            // the walk reached something it marked itself, so it closed a cycle there
+            if (current >= 0 && states[current] == id) {
+                int length = 0, member = current;
+                do {
+                    length++;
+                    member = parents[member];
+                } while (member != current);
+
+                do {
+                    cycles[member] = length;
+                    member = parents[member];
+                } while (member != current);
+            }
+
+            for (current = i; current >= 0 && states[current] == id; current = parents[current])
+                states[current] = -1;
+        }
+
+        return cycles;
+    }
+}
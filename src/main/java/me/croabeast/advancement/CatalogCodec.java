@@ -0,0 +1,607 @@
+package me.croabeast.advancement;
+
+import lombok.experimental.UtilityClass;
+import org.bukkit.plugin.messaging.Messenger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Utility class that encodes {@link AdvancementCatalog catalogs} and {@link CatalogDelta deltas} into a compact
+ * binary format, to ship advancement metadata across a proxy network.
+ * <p>
+ * A payload starts with a magic number, a format version and its kind (full snapshot or delta). Every string is
+ * written once in a string table and referenced by index; integers are varints, and the display flags and frame
+ * of each advancement are packed into a single byte. A delta carries a hash of the keys of the catalog it was
+ * computed from, and is only applied to a catalog with the same keys. Icons keep their item meta. Criteria are
+ * shipped by name only and rewards are not shipped, since both are server objects: decoded infos have
+ * {@code null} criterion values and rewards.
+ * </p>
+ * <p>
+ * Proxies, which have no Bukkit API, decode payloads into {@link CatalogRecord records} with
+ * {@link #decodeRecords(ByteBuffer, List)}, forward them with {@link #encodeRecords(List)} and join chunks with an
+ * {@link Assembler}; none of these touches a Bukkit class. Servers decode straight into a catalog with
+ * {@link #decode(ByteBuffer, AdvancementCatalog)}.
+ * </p>
+ * <p>
+ * Payloads are read in place: the buffer is never copied, and each string of the string table is decoded from
+ * it only when a record first references it. They can be split with {@link #split(byte[], int)} into chunks
+ * that fit a plugin message, and joined back with an {@link Assembler}.
+ * </p>
+ */
+@UtilityClass
+public class CatalogCodec {
+
+    /**
+     * The largest plugin message payload accepted by Bukkit.
+     */
+    public final int MAX_CHUNK_SIZE = Messenger.MAX_MESSAGE_SIZE;
+
+    private final short MAGIC = 0x4149, CHUNK_MAGIC = 0x4143;
+    private final byte FORMAT = 2, FULL = 0, DELTA = 1;
+
+    private final int TOAST = 1, CHAT = 1 << 1, HIDDEN = 1 << 2, PARENT = 1 << 3,
+            FRAME_SHIFT = 4, ICON = 1 << 6, POSITION = 1 << 7;
+
+    private final AtomicInteger TRANSFERS = new AtomicInteger((int) System.nanoTime());
+
+    /**
+     * Encodes a full snapshot of the given catalog.
+     *
+     * @param catalog the catalog to encode.
+     * @return the payload.
+     */
+    @NotNull
+    public byte[] encode(@NotNull AdvancementCatalog catalog) {
+        Writer writer = new Writer(FULL);
+        writer.varint(catalog.size());
+        for (AdvancementInfo info : catalog) writer.record(DetachedInfo.toRecord(info));
+        return writer.finish();
+    }
+
+    /**
+     * Encodes a full snapshot of the given records, such as records decoded by a proxy to be forwarded.
+     *
+     * @param records the records to encode.
+     * @return the payload.
+     */
+    @NotNull
+    public byte[] encodeRecords(@NotNull List<CatalogRecord> records) {
+        Writer writer = new Writer(FULL);
+        writer.varint(records.size());
+        for (CatalogRecord record : records) writer.record(record);
+        return writer.finish();
+    }
+
+    /**
+     * Encodes the given delta, to be applied on the receiving side to the catalog decoded from its previous
+     * catalog. Deltas without a previous catalog are encoded as a full snapshot.
+     *
+     * @param delta the delta to encode.
+     * @return the payload.
+     */
+    @NotNull
+    public byte[] encode(@NotNull CatalogDelta delta) {
+        AdvancementCatalog previous = delta.getPrevious();
+        if (previous == null) return encode(delta.getCurrent());
+
+        Writer writer = new Writer(DELTA);
+        writer.fingerprint(keySet(previous, CatalogCodec::keyOf));
+
+        writer.varint(delta.getRemoved().size());
+        for (AdvancementInfo info : delta.getRemoved()) writer.key(keyOf(info));
+
+        writer.varint(delta.getAdded().size() + delta.getChanged().size());
+        for (AdvancementInfo info : delta.getChanged()) writer.record(DetachedInfo.toRecord(info));
+        for (AdvancementInfo info : delta.getAdded()) writer.record(DetachedInfo.toRecord(info));
+
+        return writer.finish();
+    }
+
+    /**
+     * Decodes a payload, reading the buffer from its position to its limit.
+     * <p>
+     * A full snapshot decodes into a catalog with the same ordinals as the encoded one. A delta is applied to the
+     * given base catalog: changed advancements keep their ordinals, removed ones are dropped and added ones are
+     * appended.
+     * </p>
+     *
+     * @param buffer the payload.
+     * @param base   the catalog a delta applies to, ignored for full snapshots.
+     * @return the decoded catalog.
+     * @throws IllegalArgumentException if the payload is malformed or of an unknown format version.
+     * @throws IllegalStateException    if the payload is a delta and the base catalog is missing or is not the
+     *                                  catalog the delta was computed from.
+     */
+    @NotNull
+    public AdvancementCatalog decode(@NotNull ByteBuffer buffer, @Nullable AdvancementCatalog base) {
+        Payload payload = read(buffer);
+        StringPool pool = new StringPool();
+        Function<CatalogRecord, AdvancementInfo> convert = record -> new DetachedInfo(record, pool);
+
+        if (payload.kind == FULL) {
+            List<AdvancementInfo> infos = new ArrayList<>(payload.records.size());
+            for (CatalogRecord record : payload.records) infos.add(convert.apply(record));
+            return AdvancementCatalog.of(infos, pool);
+        }
+
+        if (base == null || keySet(base, CatalogCodec::keyOf) != payload.fingerprint)
+            throw new IllegalStateException("The delta does not apply to " + base);
+
+        return AdvancementCatalog.of(payload.apply(base, base.size(), CatalogCodec::keyOf, convert), pool);
+    }
+
+    /**
+     * Decodes a payload into records, reading the buffer from its position to its limit. Unlike
+     * {@link #decode(ByteBuffer, AdvancementCatalog)}, this needs no Bukkit API, so proxies decode with it.
+     * <p>
+     * A full snapshot decodes into the records of the encoded catalog, in order. A delta is applied to the given
+     * base records: changed records keep their positions, removed ones are dropped and added ones are appended.
+     * </p>
+     *
+     * @param buffer the payload.
+     * @param base   the records a delta applies to, ignored for full snapshots.
+     * @return the unmodifiable decoded records.
+     * @throws IllegalArgumentException if the payload is malformed or of an unknown format version.
+     * @throws IllegalStateException    if the payload is a delta and the base records are missing or are not the
+     *                                  ones the delta was computed from.
+     */
+    @NotNull
+    public List<CatalogRecord> decodeRecords(@NotNull ByteBuffer buffer, @Nullable List<CatalogRecord> base) {
+        Payload payload = read(buffer);
+        if (payload.kind == FULL) return Collections.unmodifiableList(payload.records);
+
+        if (base == null || keySet(base, CatalogRecord::getKey) != payload.fingerprint)
+            throw new IllegalStateException("The delta does not apply to these records");
+
+        return Collections.unmodifiableList(payload.apply(base, base.size(), CatalogRecord::getKey, record -> record));
+    }
+
+    private Payload read(ByteBuffer buffer) {
+        try {
+            return new Reader(buffer.slice()).read();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IllegalArgumentException("Malformed catalog payload", e);
+        }
+    }
+
+    /**
+     * Splits a payload into chunks of at most the given size, each tagged with a transfer id and its index.
+     *
+     * @param payload      the payload.
+     * @param maxChunkSize the maximum size of a chunk, such as {@link #MAX_CHUNK_SIZE}.
+     * @return the chunks, in order.
+     * @throws IllegalArgumentException if the maximum size cannot hold a chunk header and some payload.
+     */
+    @NotNull
+    public List<byte[]> split(@NotNull byte[] payload, int maxChunkSize) {
+        // magic, transfer id, index and total varints of at most 5 bytes each
+        int header = 2 + 4 + 5 + 5, room = maxChunkSize - header;
+        if (room <= 0)
+            throw new IllegalArgumentException("Chunk size " + maxChunkSize + " is too small");
+
+        int total = Math.max(1, (payload.length + room - 1) / room), transfer = TRANSFERS.incrementAndGet();
+        List<byte[]> chunks = new ArrayList<>(total);
+
+        for (int i = 0; i < total; i++) {
+            int offset = i * room, length = Math.min(room, payload.length - offset);
+
+            ByteBuffer chunk = ByteBuffer.allocate(header + length);
+            chunk.putShort(CHUNK_MAGIC).putInt(transfer);
+            putVarint(chunk, i);
+            putVarint(chunk, total);
+            chunk.put(payload, offset, length);
+
+            chunks.add(Arrays.copyOf(chunk.array(), chunk.position()));
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Hashes the keys of a catalog regardless of their order, since a catalog patched by a delta does not
+     * keep the ordinals of the catalog the delta was computed from.
+     */
+    private <T> long keySet(Iterable<T> entries, Function<T, String> keys) {
+        long result = 0;
+        for (T entry : entries) {
+            String key = keys.apply(entry);
+
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++)
+                hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+            result += hash;
+        }
+        return result;
+    }
+
+    private String keyOf(AdvancementInfo info) {
+        return info.getKey().toString();
+    }
+
+    private void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    /**
+     * Writes a payload: the records are written first, then prefixed by the string table they reference.
+     */
+    private static final class Writer {
+
+        private final byte kind;
+        private final Map<String, Integer> strings = new LinkedHashMap<>();
+        private ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        private Writer(byte kind) {
+            this.kind = kind;
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() >= bytes) return;
+
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            buffer = larger.put(buffer);
+        }
+
+        private void varint(int value) {
+            ensure(5);
+            putVarint(buffer, value);
+        }
+
+        private void fingerprint(long value) {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        private int index(String value) {
+            Integer index = strings.get(value);
+            if (index == null) strings.put(value, index = strings.size());
+            return index;
+        }
+
+        private void string(String value) {
+            varint(index(value));
+        }
+
+        private void key(String key) {
+            int separator = key.indexOf(':');
+            string(key.substring(0, separator));
+            string(key.substring(separator + 1));
+        }
+
+        private void record(CatalogRecord record) {
+            String parent = record.getParentKey(), icon = record.getIconMaterial();
+            boolean position = record.getX() != 0 || record.getY() != 0;
+
+            int flags = record.getFrame().ordinal() << FRAME_SHIFT;
+            if (record.doesShowToast()) flags |= TOAST;
+            if (record.doesAnnounceToChat()) flags |= CHAT;
+            if (record.isHidden()) flags |= HIDDEN;
+            if (parent != null) flags |= PARENT;
+            if (icon != null) flags |= ICON;
+            if (position) flags |= POSITION;
+
+            key(record.getKey());
+            ensure(1);
+            buffer.put((byte) flags);
+
+            if (parent != null) key(parent);
+            string(record.getTitle());
+            string(record.getDescription());
+
+            if (icon != null) {
+                string(icon);
+                varint(record.getIconAmount());
+
+                // zero encodes an icon without meta, so the string index is shifted by one
+                String data = record.getIconData();
+                varint(data == null ? 0 : index(data) + 1);
+            }
+
+            if (position) {
+                ensure(8);
+                buffer.putFloat(record.getX()).putFloat(record.getY());
+            }
+
+            List<String> criteria = record.getCriteria();
+            varint(criteria.size());
+            for (String criterion : criteria) string(criterion);
+
+            // zero encodes missing requirements, so the group count is shifted by one
+            List<List<String>> requirements = record.getRequirements();
+            varint(requirements == null ? 0 : requirements.size() + 1);
+
+            if (requirements != null)
+                for (List<String> group : requirements) {
+                    varint(group.size());
+                    for (String criterion : group) string(criterion);
+                }
+        }
+
+        private byte[] finish() {
+            byte[][] encoded = new byte[strings.size()][];
+            int size = 0, i = 0;
+
+            for (String value : strings.keySet()) {
+                encoded[i] = value.getBytes(StandardCharsets.UTF_8);
+                size += encoded[i++].length + 5;
+            }
+
+            ByteBuffer out = ByteBuffer.allocate(2 + 1 + 1 + 5 + size + buffer.position());
+            out.putShort(MAGIC).put(FORMAT).put(kind);
+
+            putVarint(out, encoded.length);
+            for (byte[] bytes : encoded) {
+                putVarint(out, bytes.length);
+                out.put(bytes);
+            }
+
+            buffer.flip();
+            out.put(buffer);
+            return Arrays.copyOf(out.array(), out.position());
+        }
+    }
+
+    /**
+     * A decoded payload: the records of a full snapshot, or the removed keys and upserted records of a delta.
+     */
+    private static final class Payload {
+
+        private byte kind;
+        private long fingerprint;
+
+        private final Set<String> removed = new HashSet<>();
+        private final List<CatalogRecord> records = new ArrayList<>();
+
+        /**
+         * Applies this delta to the given base entries, converting the upserted records into entries.
+         */
+        private <T> List<T> apply(Iterable<T> base, int size, Function<T, String> keys,
+                                  Function<CatalogRecord, T> convert) {
+            Map<String, CatalogRecord> upserts = new LinkedHashMap<>();
+            for (CatalogRecord record : records) upserts.put(record.getKey(), record);
+
+            List<T> entries = new ArrayList<>(size + upserts.size());
+            for (T entry : base) {
+                String key = keys.apply(entry);
+                if (removed.contains(key)) continue;
+
+                CatalogRecord changed = upserts.remove(key);
+                entries.add(changed != null ? convert.apply(changed) : entry);
+            }
+
+            for (CatalogRecord record : upserts.values()) entries.add(convert.apply(record));
+            return entries;
+        }
+    }
+
+    /**
+     * Reads a payload from a buffer, in place: the string table is only indexed, and each string is decoded the
+     * first time a record references it.
+     */
+    private static final class Reader {
+
+        private final ByteBuffer buffer;
+
+        private int[] offsets, lengths;
+        private String[] strings;
+        private final Map<Long, String> keys = new HashMap<>();
+
+        private Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private String string(int index) {
+            String value = strings[index];
+            if (value == null) strings[index] = value = decode(offsets[index], lengths[index]);
+            return value;
+        }
+
+        private String string() {
+            return string(getVarint(buffer));
+        }
+
+        private String key() {
+            int namespace = getVarint(buffer), key = getVarint(buffer);
+            return keys.computeIfAbsent((long) namespace << 32 | key, k -> string(namespace) + ':' + string(key));
+        }
+
+        /**
+         * Reads the size of a table or list, before anything is allocated for it. Each element takes at least
+         * one byte, so a size larger than what is left can only come from a malformed or hostile payload.
+         */
+        private int count() {
+            int count = getVarint(buffer);
+            if (count < 0 || count > buffer.remaining())
+                throw new IllegalArgumentException("Malformed count " + count);
+            return count;
+        }
+
+        private Payload read() {
+            if (buffer.getShort() != MAGIC)
+                throw new IllegalArgumentException("Not a catalog payload");
+
+            byte format = buffer.get();
+            if (format != FORMAT)
+                throw new IllegalArgumentException("Unknown catalog format " + format);
+
+            Payload payload = new Payload();
+            payload.kind = buffer.get();
+
+            int count = count();
+            offsets = new int[count];
+            lengths = new int[count];
+            strings = new String[count];
+
+            for (int i = 0; i < count; i++) {
+                int length = getVarint(buffer);
+                if (length < 0 || length > buffer.remaining()) throw new BufferUnderflowException();
+
+                offsets[i] = buffer.position();
+                lengths[i] = length;
+                buffer.position(buffer.position() + length);
+            }
+
+            if (payload.kind == DELTA) {
+                payload.fingerprint = buffer.getLong();
+                for (int i = count(); i > 0; i--) payload.removed.add(key());
+            }
+            else if (payload.kind != FULL)
+                throw new IllegalArgumentException("Unknown payload kind " + payload.kind);
+
+            for (int i = count(); i > 0; i--) payload.records.add(record());
+            return payload;
+        }
+
+        private String decode(int offset, int length) {
+            if (buffer.hasArray())
+                return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+
+            ByteBuffer slice = buffer.duplicate();
+            slice.limit(offset + length).position(offset);
+            return StandardCharsets.UTF_8.decode(slice).toString();
+        }
+
+        private CatalogRecord record() {
+            String key = key();
+            int flags = buffer.get() & 0xFF;
+
+            String parent = (flags & PARENT) != 0 ? key() : null;
+            String title = string(), description = string();
+
+            String material = null, data = null;
+            int amount = 0;
+
+            if ((flags & ICON) != 0) {
+                material = string();
+                amount = getVarint(buffer);
+
+                int index = getVarint(buffer);
+                if (index > 0) data = string(index - 1);
+            }
+
+            float x = 0, y = 0;
+            if ((flags & POSITION) != 0) {
+                x = buffer.getFloat();
+                y = buffer.getFloat();
+            }
+
+            int size = count();
+            List<String> criteria = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) criteria.add(string());
+
+            List<List<String>> requirements = null;
+            int groups = count() - 1;
+
+            if (groups >= 0) {
+                requirements = new ArrayList<>(groups);
+                for (int i = 0; i < groups; i++) {
+                    int length = count();
+                    List<String> group = new ArrayList<>(length);
+
+                    for (int j = 0; j < length; j++) group.add(string());
+                    requirements.add(Platform.copyOf(group));
+                }
+                requirements = Platform.copyOf(requirements);
+            }
+
+            AdvancementInfo.Frame[] frames = AdvancementInfo.Frame.values();
+            return new CatalogRecord(
+                    key, parent, title, description, material, amount, data,
+                    (flags & TOAST) != 0, (flags & CHAT) != 0, (flags & HIDDEN) != 0,
+                    x, y, frames[flags >>> FRAME_SHIFT & 3],
+                    Platform.copyOf(criteria), requirements
+            );
+        }
+    }
+
+    /**
+     * Joins the chunks produced by {@link #split(byte[], int)} back into payloads.
+     * <p>
+     * Chunks of several transfers can be interleaved and arrive in any order. Only the most recent incomplete
+     * transfers are kept, so an interrupted transfer is eventually discarded. Chunks are kept without copying
+     * them until their transfer is complete, so callers must not reuse the arrays they pass. A payload sent in a
+     * single chunk is returned as a view of that chunk. Assemblers are not thread-safe.
+     * </p>
+     */
+    public static final class Assembler {
+
+        private static final int MAX_TRANSFERS = 8;
+
+        private final Map<Integer, ByteBuffer[]> transfers = new LinkedHashMap<Integer, ByteBuffer[]>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ByteBuffer[]> eldest) {
+                return size() > MAX_TRANSFERS;
+            }
+        };
+
+        /**
+         * Accepts a chunk.
+         *
+         * @param chunk the chunk, as received.
+         * @return the whole payload if this chunk completed it; {@code null} otherwise.
+         * @throws IllegalArgumentException if the chunk is malformed.
+         */
+        @Nullable
+        public ByteBuffer accept(@NotNull byte[] chunk) {
+            ByteBuffer buffer = ByteBuffer.wrap(chunk);
+            int transfer, index, total;
+
+            try {
+                if (buffer.getShort() != CHUNK_MAGIC)
+                    throw new IllegalArgumentException("Not a catalog chunk");
+
+                transfer = buffer.getInt();
+                index = getVarint(buffer);
+                total = getVarint(buffer);
+            } catch (BufferUnderflowException e) {
+                throw new IllegalArgumentException("Malformed catalog chunk", e);
+            }
+
+            if (total <= 0 || index < 0 || index >= total)
+                throw new IllegalArgumentException("Chunk " + index + " out of " + total);
+
+            if (total == 1) return buffer.slice();
+
+            ByteBuffer[] parts = transfers.get(transfer);
+            if (parts == null || parts.length != total)
+                transfers.put(transfer, parts = new ByteBuffer[total]);
+
+            parts[index] = buffer.slice();
+            for (ByteBuffer part : parts)
+                if (part == null) return null;
+
+            transfers.remove(transfer);
+
+            int size = 0;
+            for (ByteBuffer part : parts) size += part.remaining();
+
+            ByteBuffer payload = ByteBuffer.allocate(size);
+            for (ByteBuffer part : parts) payload.put(part);
+
+            payload.flip();
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package me.croabeast.advancement;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * The differences between two {@link AdvancementCatalog catalogs}, delivered to catalog subscribers.
+ * <p>
+ * A delta always spans from the catalog a subscriber saw last to the newest one, so several refreshes that
+ * happen while a subscriber is busy are coalesced into a single delta.
+ * </p>
+ *
+ * @see AdvancementCatalog#subscribe(java.util.function.Consumer)
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CatalogDelta {
+
+    /**
+     * The catalog the delta starts from, or {@code null} for the first delta of a subscription.
+     */
+    @Nullable
+    private final AdvancementCatalog previous;
+
+    /**
+     * The catalog the delta leads to.
+     */
+    @NotNull
+    private final AdvancementCatalog current;
+
+    /**
+     * The advancements of the current catalog that were not in the previous one.
+     */
+    @NotNull
+    private final List<AdvancementInfo> added;
+
+    /**
+     * The advancements of the previous catalog that are not in the current one.
+     */
+    @NotNull
+    private final List<AdvancementInfo> removed;
+
+    /**
+     * The advancements of the current catalog whose data differs from the previous catalog.
+     */
+    @NotNull
+    private final List<AdvancementInfo> changed;
+
+    /**
+     * Checks if the two catalogs hold the same advancements with the same data.
+     *
+     * @return {@code true} if nothing was added, removed or changed.
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogDelta{" + (previous == null ? "none" : previous.getVersion()) + " -> " + current.getVersion() +
+                ", added=" + added.size() + ", removed=" + removed.size() + ", changed=" + changed.size() + '}';
+    }
+
+    /**
+     * Computes the delta between two catalogs.
+     *
+     * @param previous the catalog to start from, or {@code null} to report every advancement as added.
+     * @param current  the catalog to lead to.
+     * @return the delta.
+     */
+    @NotNull
+    static CatalogDelta compute(@Nullable AdvancementCatalog previous, @NotNull AdvancementCatalog current) {
+        List<AdvancementInfo> added = new ArrayList<>(), removed = new ArrayList<>(), changed = new ArrayList<>();
+
+        for (AdvancementInfo info : current) {
+            AdvancementInfo old = previous == null ? null : previous.get(info.getKey());
+            if (old == null) added.add(info);
+            else if (!sameData(old, info)) changed.add(info);
+        }
+
+        if (previous != null)
+            for (AdvancementInfo info : previous)
+                if (current.getOrdinal(info.getKey()) < 0) removed.add(info);
+
+        return new CatalogDelta(previous, current,
+                Collections.unmodifiableList(added),
+                Collections.unmodifiableList(removed),
+                Collections.unmodifiableList(changed));
+    }
+
+    private static boolean sameData(AdvancementInfo a, AdvancementInfo b) {
+        if (a == b) return true;
+
+        return Objects.equals(a.getParentKey(), b.getParentKey()) &&
+                Objects.equals(a.getTitle(), b.getTitle()) &&
+                Objects.equals(a.getDescription(), b.getDescription()) &&
+                a.getFrame() == b.getFrame() &&
+                a.doesShowToast() == b.doesShowToast() &&
+                a.doesAnnounceToChat() == b.doesAnnounceToChat() &&
+                a.isHidden() == b.isHidden() &&
+                a.getX() == b.getX() && a.getY() == b.getY() &&
+                Objects.equals(a.getSharedIcon(), b.getSharedIcon()) &&
+                sameCriteria(a.getCriteria(), b.getCriteria()) &&
+                Objects.equals(a.getRequirements(), b.getRequirements()) &&
+                sameValue(a.getRewards(), b.getRewards());
+    }
+
+    private static boolean sameCriteria(Map<String, Object> a, Map<String, Object> b) {
+        if (!a.keySet().equals(b.keySet())) return false;
+
+        for (Map.Entry<String, Object> entry : a.entrySet())
+            if (!sameValue(entry.getValue(), b.get(entry.getKey()))) return false;
+        return true;
+    }
+
+    /**
+     * Compares two internal objects, which are only comparable if their class implements value equality.
+     * Otherwise every reload would report every advancement as changed.
+     */
+    private static boolean sameValue(Object a, Object b) {
+        if (a == null || b == null || a.getClass() != b.getClass()) return a == b;
+
+        try {
+            if (a.getClass().getMethod("equals", Object.class).getDeclaringClass() == Object.class)
+                return true;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+
+        return a.equals(b);
+    }
+}
@@ -0,0 +1,145 @@
+package me.croabeast.advancement;
+
+import com.google.gson.JsonObject;
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Utility class that captures a catalog into a fixture file and replays it without a server.
+ * <p>
+ * A fixture holds the {@link CatalogCodec full snapshot} of a catalog followed by the
+ * {@link AdvancementCatalog#getCriteria(int) decoded criteria} of every advancement. Replaying it rebuilds
+ * detached infos with the same keys, ordinals, display data, requirements and criterion triggers and
+ * conditions, so code working on a production catalog can be measured offline, at the same scale. Replayed
+ * criteria are JSON objects, like those of {@link DatapackLoader datapack} infos, and replayed infos have no
+ * icons and no rewards.
+ * </p>
+ */
+@UtilityClass
+public class CatalogFixture {
+
+    private final int MAGIC = 0x41494658, FORMAT = 1;
+
+    /**
+     * Writes a fixture of the given catalog, replacing the given file atomically.
+     * <p>
+     * Decoding the criteria reads server objects, so this method should not run while the advancements are
+     * being reloaded.
+     * </p>
+     *
+     * @param catalog the catalog to capture.
+     * @param file    the fixture file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void capture(@NotNull AdvancementCatalog catalog, @NotNull Path file) throws IOException {
+        byte[] payload = CatalogCodec.encode(catalog);
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+
+            out.writeInt(payload.length);
+            out.write(payload);
+
+            for (int i = 0; i < catalog.size(); i++) {
+                List<CriterionInfo> criteria = catalog.getCriteria(i);
+                out.writeInt(criteria.size());
+
+                for (CriterionInfo criterion : criteria) {
+                    out.writeUTF(criterion.getName());
+                    out.writeBoolean(criterion.getTrigger() != null);
+                    if (criterion.getTrigger() != null) out.writeUTF(criterion.getTrigger());
+
+                    out.writeInt(criterion.getConditionCount());
+                    for (int j = 0; j < criterion.getConditionCount(); j++) {
+                        out.writeUTF(criterion.getConditionName(j));
+                        writeText(out, criterion.getConditionValue(j));
+                    }
+                }
+            }
+        }
+
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes a string that may not fit the 64 KiB limit of {@link DataOutput#writeUTF(String)}.
+     */
+    private void writeText(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readText(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Replays a fixture into a new catalog, which is not made {@link AdvancementCatalog#current() current}.
+     *
+     * @param file the fixture file.
+     * @return the replayed catalog.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if the file is not a fixture or is malformed.
+     */
+    @NotNull
+    public AdvancementCatalog replay(@NotNull Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT)
+                throw new IllegalArgumentException("Not a catalog fixture: " + file);
+
+            byte[] payload = new byte[in.readInt()];
+            in.readFully(payload);
+
+            AdvancementCatalog decoded = CatalogCodec.decode(ByteBuffer.wrap(payload), null);
+            List<AdvancementInfo> list = new ArrayList<>(decoded.size());
+
+            for (AdvancementInfo info : decoded) {
+                Map<String, Object> criteria = new LinkedHashMap<>();
+
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    JsonObject criterion = new JsonObject();
+                    String name = in.readUTF();
+                    if (in.readBoolean()) criterion.addProperty("trigger", in.readUTF());
+
+                    JsonObject conditions = new JsonObject();
+                    int size = in.readInt();
+                    for (int j = 0; j < size; j++) conditions.addProperty(in.readUTF(), readText(in));
+
+                    criterion.add("conditions", conditions);
+                    criteria.put(name, criterion);
+                }
+
+                list.add(new DetachedInfo(info.getKey(), info.getParentKey(), info.getTitle(), info.getDescription(),
+                        null, info.doesShowToast(), info.doesAnnounceToChat(), info.isHidden(),
+                        info.getX(), info.getY(), info.getFrame(),
+                        Collections.unmodifiableMap(criteria), null, info.getRequirements()));
+            }
+
+            return AdvancementCatalog.of(list);
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("Truncated catalog fixture: " + file, e);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package me.croabeast.advancement;
+
+import lombok.Getter;
+import org.bukkit.NamespacedKey;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.*;
+
+/**
+ * A sort order of the advancements of an {@link AdvancementCatalog}, computed once per catalog.
+ * <p>
+ * The order is kept as a permutation of the catalog ordinals together with its inverse, so finding the
+ * advancement at a position or the position of an advancement costs a single array access. {@link Page Pages}
+ * are views over a slice of the permutation: reading any page costs as much as the page size, however large
+ * the catalog is, and nothing is copied.
+ * </p>
+ * <p>
+ * Pages can be requested by number or after a cursor, the key of the last advancement of the previous page.
+ * Cursors stay valid across {@link AdvancementCatalog#refresh() refreshes} while their advancement exists.
+ * </p>
+ *
+ * @see AdvancementCatalog#getOrder(Sort)
+ */
+public final class CatalogOrder {
+
+    /**
+     * The catalog this order belongs to.
+     */
+    @Getter
+    private final AdvancementCatalog catalog;
+
+    /**
+     * The sort of this order.
+     */
+    @Getter
+    private final Sort sort;
+
+    /**
+     * The ordinal of the advancement at each position.
+     */
+    private final int[] ordinals;
+
+    /**
+     * The position of each advancement, indexed by ordinal.
+     */
+    private final int[] positions;
+
+    /**
+     * A way to sort the advancements of a catalog. Ties are always broken by ordinal.
+     */
+    public enum Sort {
+        /**
+         * By title, without format codes, following the collation rules of the root locale and ignoring case.
+         */
+        TITLE,
+        /**
+         * By tab, in pre-order: every advancement comes right after its parent and before the next sibling of
+         * its parent. Tabs and siblings follow ordinal order.
+         */
+        TREE,
+        /**
+         * By {@link AdvancementInfo.Frame frame}, in declaration order: unknown frames first, then tasks, goals
+         * and challenges, then by title.
+         */
+        FRAME_TITLE,
+        /**
+         * By namespace, then by key path.
+         */
+        NAMESPACE
+    }
+
+    CatalogOrder(AdvancementCatalog catalog, Sort sort) {
+        this.catalog = catalog;
+        this.sort = sort;
+
+        int size = catalog.size();
+        ordinals = sort == Sort.TREE ? walk(catalog) : sorted(catalog, sort);
+
+        positions = new int[size];
+        for (int i = 0; i < size; i++) positions[ordinals[i]] = i;
+    }
+
+    private static int[] sorted(AdvancementCatalog catalog, Sort sort) {
+        int size = catalog.size();
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+
+        Comparator<Integer> comparator;
+        if (sort == Sort.NAMESPACE) {
+            comparator = Comparator
+                    .comparing((Integer i) -> catalog.get(i).getKey().getNamespace())
+                    .thenComparing(i -> catalog.get(i).getKey().getKey());
+        } else if (sort == Sort.FRAME_TITLE) {
+            // titles are collated once per catalog, and their ranks already break ties by ordinal
+            int[] titles = catalog.getOrder(Sort.TITLE).positions;
+            comparator = Comparator
+                    .comparing((Integer i) -> catalog.get(i).getFrame())
+                    .thenComparingInt(i -> titles[i]);
+        } else {
+            // collation keys are computed once, so each comparison is a plain byte comparison
+            Collator collator = Collator.getInstance(Locale.ROOT);
+            collator.setStrength(Collator.SECONDARY);
+
+            CollationKey[] titles = new CollationKey[size];
+            for (int i = 0; i < size; i++) {
+                String title = catalog.get(i).getTitle();
+                titles[i] = collator.getCollationKey(title == null ? "" : TextWrapper.strip(title));
+            }
+
+            comparator = Comparator.comparing(i -> titles[i]);
+        }
+
+        Arrays.sort(order, comparator.thenComparingInt(i -> i));
+
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) result[i] = order[i];
+        return result;
+    }
+
+    private static int[] walk(AdvancementCatalog catalog) {
+        AdvancementTree tree = catalog.getTree();
+        int[] result = new int[catalog.size()];
+        int count = 0;
+
+        for (int root = 0; root < result.length; root++) {
+            if (tree.getParent(root) >= 0) continue;
+
+            for (int i = root; i >= 0; i = tree.next(root, i)) result[count++] = i;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of advancements in this order.
+     *
+     * @return the catalog size.
+     */
+    public int size() {
+        return ordinals.length;
+    }
+
+    /**
+     * Returns the ordinal of the advancement at the given position.
+     *
+     * @param position the position, between {@code 0} and {@link #size()} (exclusive).
+     * @return the catalog ordinal.
+     * @throws IndexOutOfBoundsException if the position is out of range.
+     */
+    public int getOrdinal(int position) {
+        return ordinals[position];
+    }
+
+    /**
+     * Returns the advancement at the given position.
+     *
+     * @param position the position, between {@code 0} and {@link #size()} (exclusive).
+     * @return the advancement info.
+     * @throws IndexOutOfBoundsException if the position is out of range.
+     */
+    @NotNull
+    public AdvancementInfo get(int position) {
+        return catalog.get(ordinals[position]);
+    }
+
+    /**
+     * Returns the position of the advancement with the given ordinal.
+     *
+     * @param ordinal the catalog ordinal.
+     * @return the position.
+     * @throws IndexOutOfBoundsException if the ordinal is out of range.
+     */
+    public int getPosition(int ordinal) {
+        return positions[ordinal];
+    }
+
+    /**
+     * Returns the position of the advancement with the given key.
+     *
+     * @param key the advancement key.
+     * @return the position, or {@code -1} if the catalog does not contain the advancement.
+     */
+    public int getPosition(@Nullable NamespacedKey key) {
+        int ordinal = catalog.getOrdinal(key);
+        return ordinal < 0 ? -1 : positions[ordinal];
+    }
+
+    /**
+     * Returns the number of pages of the given size.
+     *
+     * @param pageSize the number of advancements per page.
+     * @return the number of pages, at least {@code 1}.
+     * @throws IllegalArgumentException if the page size is not positive.
+     */
+    public int getPageCount(int pageSize) {
+        if (pageSize < 1) throw new IllegalArgumentException("Page size " + pageSize);
+        return Math.max(1, (ordinals.length + pageSize - 1) / pageSize);
+    }
+
+    /**
+     * Returns the page with the given number.
+     *
+     * @param page     the page number, starting at {@code 0}.
+     * @param pageSize the number of advancements per page.
+     * @return the page, empty if the number is past the last page.
+     * @throws IllegalArgumentException if the page number is negative or the page size is not positive.
+     */
+    @NotNull
+    public Page getPage(int page, int pageSize) {
+        if (page < 0 || pageSize < 1)
+            throw new IllegalArgumentException("Page " + page + " of size " + pageSize);
+
+        long start = (long) page * pageSize;
+        return slice((int) Math.min(start, ordinals.length), pageSize);
+    }
+
+    /**
+     * Returns the page that starts right after the given cursor.
+     *
+     * @param cursor   the key of the last advancement of the previous page, or {@code null} for the first page.
+     * @param pageSize the number of advancements per page.
+     * @return the page, empty if the cursor is the last advancement.
+     * @throws IllegalArgumentException if the page size is not positive, or the catalog does not contain
+     *                                  the cursor.
+     * @see Page#getNextCursor()
+     */
+    @NotNull
+    public Page getPageAfter(@Nullable NamespacedKey cursor, int pageSize) {
+        if (pageSize < 1) throw new IllegalArgumentException("Page size " + pageSize);
+        if (cursor == null) return slice(0, pageSize);
+
+        int position = getPosition(cursor);
+        if (position < 0) throw new IllegalArgumentException("Unknown cursor " + cursor);
+
+        return slice(position + 1, pageSize);
+    }
+
+    private Page slice(int start, int pageSize) {
+        return new Page(start, (int) Math.min((long) start + pageSize, ordinals.length));
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogOrder{sort=" + sort + ", catalog=" + catalog.getVersion() + '}';
+    }
+
+    /**
+     * A page of a {@link CatalogOrder}, a read-only view over a slice of the order.
+     */
+    public final class Page extends AbstractList<AdvancementInfo> implements RandomAccess {
+
+        /**
+         * The position of the first advancement of this page.
+         */
+        @Getter
+        private final int start;
+        private final int end;
+
+        private Page(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public AdvancementInfo get(int index) {
+            return catalog.get(getOrdinal(index));
+        }
+
+        /**
+         * Returns the catalog ordinal of the advancement at the given index of this page.
+         *
+         * @param index the index within this page.
+         * @return the catalog ordinal.
+         * @throws IndexOutOfBoundsException if the index is out of range.
+         */
+        public int getOrdinal(int index) {
+            if (index < 0 || index >= end - start)
+                throw new IndexOutOfBoundsException("Index " + index + " of " + (end - start));
+            return ordinals[start + index];
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+
+        /**
+         * Checks whether there are advancements before this page.
+         *
+         * @return {@code true} if this page does not start the order.
+         */
+        public boolean hasPrevious() {
+            return start > 0;
+        }
+
+        /**
+         * Checks whether there are advancements after this page.
+         *
+         * @return {@code true} if this page does not end the order.
+         */
+        public boolean hasNext() {
+            return end < ordinals.length;
+        }
+
+        /**
+         * Returns the cursor of the page after this one.
+         *
+         * @return the key of the last advancement of this page, or {@code null} if there is no next page.
+         * @see CatalogOrder#getPageAfter(NamespacedKey, int)
+         */
+        @Nullable
+        public NamespacedKey getNextCursor() {
+            return hasNext() ? catalog.get(ordinals[end - 1]).getKey() : null;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package me.croabeast.advancement;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * An advancement as shipped by the {@link CatalogCodec}, in a form that does not depend on the Bukkit API.
+ * <p>
+ * Proxy plugins, where no Bukkit classes exist, decode payloads into records with
+ * {@link CatalogCodec#decodeRecords(java.nio.ByteBuffer, List)}; keys are plain {@code namespace:key} strings and
+ * icons are described by their material name. Servers decode the same payloads straight into a catalog of
+ * {@link AdvancementInfo infos} with {@link CatalogCodec#decode(java.nio.ByteBuffer, AdvancementCatalog)}.
+ * </p>
+ */
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public final class CatalogRecord {
+
+    /**
+     * The key of the advancement, such as {@code minecraft:story/mine_stone}.
+     */
+    @NotNull
+    private final String key;
+
+    /**
+     * The key of the parent advancement, or {@code null} for a root advancement.
+     */
+    @Nullable
+    private final String parentKey;
+
+    /**
+     * The title of the advancement.
+     */
+    @NotNull
+    private final String title;
+
+    /**
+     * The description of the advancement.
+     */
+    @NotNull
+    private final String description;
+
+    /**
+     * The material name of the icon, such as {@code DIAMOND}, or {@code null} if the advancement has no icon.
+     */
+    @Nullable
+    private final String iconMaterial;
+
+    /**
+     * The amount of items of the icon.
+     */
+    private final int iconAmount;
+
+    /**
+     * The Bukkit configuration form of the icon, which keeps its item meta, or {@code null} if the icon has no
+     * meta. It is an opaque string outside of Bukkit servers.
+     */
+    @Nullable
+    private final String iconData;
+
+    /**
+     * Indicates whether a toast notification should be shown when the advancement is achieved.
+     */
+    @Getter(AccessLevel.NONE)
+    private final boolean showToast;
+
+    /**
+     * Indicates whether the advancement's completion is announced in chat.
+     */
+    @Getter(AccessLevel.NONE)
+    private final boolean announceChat;
+
+    /**
+     * Indicates whether the advancement is hidden.
+     */
+    private final boolean hidden;
+
+    /**
+     * The x-coordinate for displaying the advancement.
+     */
+    private final float x;
+
+    /**
+     * The y-coordinate for displaying the advancement.
+     */
+    private final float y;
+
+    /**
+     * The frame type of the advancement.
+     */
+    @NotNull
+    private final AdvancementInfo.Frame frame;
+
+    /**
+     * The unmodifiable names of the criteria of the advancement, in order.
+     */
+    @NotNull
+    private final List<String> criteria;
+
+    /**
+     * The unmodifiable requirements of the advancement, or {@code null} if it has none.
+     */
+    @Nullable
+    private final List<List<String>> requirements;
+
+    /**
+     * Indicates whether this advancement should show a toast notification.
+     *
+     * @return {@code true} if a toast should be shown; {@code false} otherwise.
+     */
+    public boolean doesShowToast() {
+        return showToast;
+    }
+
+    /**
+     * Indicates whether this advancement should announce its completion to chat.
+     *
+     * @return {@code true} if it should announce to chat; {@code false} otherwise.
+     */
+    public boolean doesAnnounceToChat() {
+        return announceChat;
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogRecord{key=" + key + ", parent=" + parentKey + '}';
+    }
+}
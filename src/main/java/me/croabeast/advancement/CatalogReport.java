@@ -0,0 +1,176 @@
+package me.croabeast.advancement;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.NamespacedKey;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The integrity problems of every advancement of an {@link AdvancementCatalog}, found by a {@link CatalogAnalyzer}.
+ * <p>
+ * Issues are ordered by catalog ordinal, then by {@link Problem problem}, followed by the advancements that could
+ * not be read into the catalog at all. An advancement may have several issues, even several of the same problem,
+ * such as one per unknown requirement.
+ * </p>
+ *
+ * @see CatalogAnalyzer
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public final class CatalogReport {
+
+    /**
+     * The catalog that was analyzed.
+     */
+    @Getter
+    private final AdvancementCatalog catalog;
+
+    /**
+     * Every issue found, ordered by ordinal, then the issues of advancements missing from the catalog.
+     */
+    private final List<Issue> issues;
+
+    /**
+     * The number of issues of each problem, indexed by {@link Problem#ordinal()}.
+     */
+    private final int[] counts;
+
+    /**
+     * The time the analysis took, in nanoseconds.
+     */
+    @Getter
+    private final long elapsedNanos;
+
+    /**
+     * A kind of integrity problem.
+     */
+    public enum Problem {
+        /**
+         * The server holds the advancement, but part or all of it could not be read, see
+         * {@link AdvancementCatalog#getExtractionFailures()}.
+         */
+        EXTRACTION_FAILED,
+        /**
+         * The parent key is set, but no advancement of the catalog has it.
+         */
+        UNRESOLVED_PARENT,
+        /**
+         * The advancement is part of a parent cycle, so it has no real root.
+         */
+        CYCLE,
+        /**
+         * The advancement has no criteria, so it can only be granted by commands.
+         */
+        MISSING_CRITERIA,
+        /**
+         * A requirement names a criterion the advancement does not have, so it can never be met.
+         */
+        UNKNOWN_REQUIREMENT,
+        /**
+         * The advancement has no icon, or an air icon.
+         */
+        MISSING_ICON,
+        /**
+         * The advancement has no title, or a blank one.
+         */
+        MISSING_TITLE,
+        /**
+         * The title is the one humanized from the key, which the server only uses when the display has none.
+         */
+        FALLBACK_TITLE
+    }
+
+    /**
+     * A single integrity problem of an advancement.
+     */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+    public static final class Issue {
+
+        /**
+         * The catalog ordinal of the advancement, or {@code -1} if it could not be read into the catalog.
+         */
+        private final int ordinal;
+
+        /**
+         * The key of the advancement.
+         */
+        @NotNull
+        private final NamespacedKey key;
+
+        /**
+         * The problem found.
+         */
+        @NotNull
+        private final Problem problem;
+
+        /**
+         * What was found, such as the missing parent or requirement, if there is anything to tell.
+         */
+        @Nullable
+        private final String detail;
+
+        @Override
+        public String toString() {
+            return key + ": " + problem + (detail != null ? " (" + detail + ')' : "");
+        }
+    }
+
+    /**
+     * Returns every issue found, ordered by ordinal.
+     *
+     * @return an unmodifiable list of issues, empty if the catalog is sound.
+     */
+    @NotNull
+    public List<Issue> getIssues() {
+        return Collections.unmodifiableList(issues);
+    }
+
+    /**
+     * Returns the issues of the given problem, ordered by ordinal.
+     *
+     * @param problem the problem.
+     * @return a new list of issues.
+     */
+    @NotNull
+    public List<Issue> getIssues(@NotNull Problem problem) {
+        List<Issue> list = new ArrayList<>(counts[problem.ordinal()]);
+        for (Issue issue : issues)
+            if (issue.problem == problem) list.add(issue);
+        return list;
+    }
+
+    /**
+     * Returns the number of issues of the given problem.
+     *
+     * @param problem the problem.
+     * @return the number of issues.
+     */
+    public int getCount(@NotNull Problem problem) {
+        return counts[problem.ordinal()];
+    }
+
+    /**
+     * Checks whether no issue was found.
+     *
+     * @return {@code true} if the catalog is sound.
+     */
+    public boolean isEmpty() {
+        return issues.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("CatalogReport{catalog=").append(catalog.getVersion());
+        for (Problem problem : Problem.values())
+            if (counts[problem.ordinal()] > 0)
+                builder.append(", ").append(problem).append('=').append(counts[problem.ordinal()]);
+
+        return builder.append(", elapsed=").append(elapsedNanos / 1_000_000).append("ms}").toString();
+    }
+}
@@ -0,0 +1,123 @@
+package me.croabeast.advancement;
+
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * A subscription to the refreshes of the {@link AdvancementCatalog#current() current catalog}.
+ * <p>
+ * Each refresh is offered to every subscription, which delivers a {@link CatalogDelta} to its listener on its
+ * executor. A subscription runs at most one delivery at a time and never queues catalogs: refreshes that happen
+ * while its listener is busy only move the target of the next delivery, so a slow consumer receives a single
+ * coalesced delta instead of a backlog.
+ * </p>
+ *
+ * @see AdvancementCatalog#subscribe(Consumer)
+ */
+public final class CatalogSubscription implements AutoCloseable {
+
+    private static final List<CatalogSubscription> SUBSCRIPTIONS = new CopyOnWriteArrayList<>();
+
+    private final Consumer<CatalogDelta> listener;
+    private final Executor executor;
+
+    private AdvancementCatalog delivered = null, latest = null;
+    private boolean running = false;
+    private volatile boolean closed = false;
+
+    private CatalogSubscription(Consumer<CatalogDelta> listener, Executor executor) {
+        this.listener = listener;
+        this.executor = executor;
+    }
+
+    private synchronized void offer(AdvancementCatalog catalog) {
+        if (closed) return;
+
+        latest = catalog;
+        if (running) return;
+
+        running = true;
+        try {
+            executor.execute(this::drain);
+        } catch (RuntimeException e) {
+            // the next refresh tries again
+            running = false;
+            Bukkit.getLogger().log(Level.WARNING, "[AdvancementInfo] Could not schedule a catalog delivery", e);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                AdvancementCatalog from, to;
+                synchronized (this) {
+                    if (closed || latest == delivered) {
+                        running = false;
+                        return;
+                    }
+
+                    from = delivered;
+                    to = latest;
+                }
+
+                try {
+                    CatalogDelta delta = CatalogDelta.compute(from, to);
+                    if (!delta.isEmpty()) listener.accept(delta);
+                } catch (Exception e) {
+                    Bukkit.getLogger().log(Level.WARNING, "[AdvancementInfo] Catalog listener failed from " +
+                            (from == null ? "none" : from.getVersion()) + " to " + to.getVersion(), e);
+                }
+
+                synchronized (this) {
+                    delivered = to;
+                }
+            }
+        } catch (Throwable t) {
+            // errors end this delivery, but must not stop the next refresh from being delivered
+            synchronized (this) {
+                running = false;
+            }
+            Bukkit.getLogger().log(Level.SEVERE, "[AdvancementInfo] Catalog delivery failed", t);
+            throw t;
+        }
+    }
+
+    /**
+     * Checks if this subscription was closed.
+     *
+     * @return {@code true} if no more deltas will be delivered.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Cancels this subscription. A delivery already in progress is completed, but no other delta is delivered.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        SUBSCRIPTIONS.remove(this);
+    }
+
+    @NotNull
+    static CatalogSubscription subscribe(Consumer<CatalogDelta> listener, Executor executor) {
+        CatalogSubscription subscription = new CatalogSubscription(listener, executor);
+        SUBSCRIPTIONS.add(subscription);
+
+        AdvancementCatalog current = AdvancementCatalog.peek();
+        if (current != null) subscription.offer(current);
+
+        return subscription;
+    }
+
+    static void publish(AdvancementCatalog catalog) {
+        for (CatalogSubscription subscription : SUBSCRIPTIONS) subscription.offer(catalog);
+    }
+}
@@ -0,0 +1,424 @@
+package me.croabeast.advancement;
+
+import org.bukkit.Bukkit;
+import org.bukkit.NamespacedKey;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerAdvancementDoneEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live completion counters of every advancement of an {@link AdvancementCatalog}, over all time and over the
+ * last hour.
+ * <p>
+ * Each advancement has a {@link LongAdder} for its total, so bursts of completions from several threads never
+ * contend on a lock, and the last hour is kept as a ring of one-minute buckets, each a primitive array indexed
+ * by catalog ordinal. Buckets are only replaced when a new minute starts, so counting a completion allocates
+ * nothing. The counters are written to a snapshot file periodically, in the background, keyed by advancement,
+ * and restored from it by key, so they survive changes of the catalog ordinals. The totals of advancements that
+ * are no longer loaded are kept until they come back.
+ * </p>
+ * <p>
+ * Once {@link #register(Plugin) registered}, the counters follow the {@link AdvancementCatalog#refresh()
+ * refreshes} of the catalog, moving their counts to the ordinals of the {@link #getCatalog() new catalog}.
+ * Completions counted while the counters move may be lost. The last registered counters back
+ * {@link AdvancementInfo#getRecentCompletions(long, TimeUnit)}. All the methods of this class are thread-safe.
+ * </p>
+ */
+public final class CompletionCounters implements Listener, Closeable {
+
+    private static final int MAGIC = 0x41494343, FORMAT = 2;
+    private static final int BUCKETS = 60;
+    private static final long BUCKET_MILLIS = 60_000;
+
+    private static volatile CompletionCounters active = null;
+
+    private final Path file;
+    private volatile State state;
+
+    private BukkitTask task = null;
+    private CatalogSubscription subscription = null;
+
+    private CompletionCounters(AdvancementCatalog catalog, Path file) {
+        this.file = file;
+        this.state = new State(catalog);
+    }
+
+    /**
+     * The counters of a single catalog, replaced as a whole when the catalog is refreshed.
+     */
+    private static final class State {
+
+        private final AdvancementCatalog catalog;
+        private final LongAdder[] totals;
+        private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(BUCKETS);
+
+        /**
+         * The totals of advancements that are not in the catalog, by key.
+         */
+        private final Map<String, Long> retired = new HashMap<>();
+
+        private State(AdvancementCatalog catalog) {
+            this.catalog = catalog;
+
+            totals = new LongAdder[catalog.size()];
+            for (int i = 0; i < totals.length; i++) totals[i] = new LongAdder();
+        }
+
+        private Bucket bucket(long minute) {
+            int index = (int) Math.floorMod(minute, (long) BUCKETS);
+
+            while (true) {
+                Bucket bucket = buckets.get(index);
+                if (bucket != null && bucket.minute >= minute) return bucket.minute == minute ? bucket : null;
+
+                Bucket created = new Bucket(minute, totals.length);
+                if (buckets.compareAndSet(index, bucket, created)) return created;
+            }
+        }
+
+        /**
+         * Adds a total read by key to the counters of this catalog, or keeps it aside if the catalog does not
+         * hold the advancement.
+         */
+        private void addTotal(String key, int ordinal, long total) {
+            if (ordinal >= 0) totals[ordinal].add(total);
+            else if (total > 0) retired.merge(key, total, Long::sum);
+        }
+    }
+
+    /**
+     * The completions of a single minute.
+     */
+    private static final class Bucket {
+
+        private final long minute;
+        private final AtomicLongArray counts;
+
+        private Bucket(long minute, int size) {
+            this.minute = minute;
+            this.counts = new AtomicLongArray(size);
+        }
+    }
+
+    /**
+     * Returns the catalog whose ordinals index these counters, which follows the refreshes of the catalog once
+     * the counters are {@link #register(Plugin) registered}.
+     *
+     * @return the counted catalog.
+     */
+    @NotNull
+    public AdvancementCatalog getCatalog() {
+        return state.catalog;
+    }
+
+    /**
+     * Counts a completion of the advancement with the given ordinal.
+     *
+     * @param ordinal the ordinal in the {@link #getCatalog() counted catalog}.
+     * @param time    the completion time, in epoch milliseconds.
+     */
+    public void increment(int ordinal, long time) {
+        increment(state, ordinal, time);
+    }
+
+    private static void increment(State state, int ordinal, long time) {
+        if (ordinal < 0 || ordinal >= state.totals.length) return;
+        state.totals[ordinal].increment();
+
+        // completions older than the window only count towards the total
+        Bucket bucket = state.bucket(Math.floorDiv(time, BUCKET_MILLIS));
+        if (bucket != null) bucket.counts.incrementAndGet(ordinal);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onCompletion(PlayerAdvancementDoneEvent event) {
+        State state = this.state;
+        increment(state, state.catalog.getOrdinal(event.getAdvancement().getKey()), System.currentTimeMillis());
+    }
+
+    /**
+     * Returns every completion of the advancement with the given ordinal counted so far.
+     *
+     * @param ordinal the ordinal in the {@link #getCatalog() counted catalog}.
+     * @return the number of completions.
+     */
+    public long getTotal(int ordinal) {
+        return state.totals[ordinal].sum();
+    }
+
+    /**
+     * Returns the completions of the advancement with the given ordinal within the given duration, up to one
+     * hour, counted in whole minutes including the current one.
+     *
+     * @param ordinal  the ordinal in the {@link #getCatalog() counted catalog}.
+     * @param duration the length of the window.
+     * @param unit     the unit of the duration.
+     * @return the number of recent completions.
+     */
+    public long getRecent(int ordinal, long duration, @NotNull TimeUnit unit) {
+        return getRecent(state, ordinal, duration, unit);
+    }
+
+    private static long getRecent(State state, int ordinal, long duration, TimeUnit unit) {
+        if (ordinal < 0 || ordinal >= state.totals.length) throw new IndexOutOfBoundsException("Ordinal " + ordinal);
+
+        long now = Math.floorDiv(System.currentTimeMillis(), BUCKET_MILLIS);
+        long minutes = Math.min(BUCKETS, Math.max(1, (unit.toMillis(duration) + BUCKET_MILLIS - 1) / BUCKET_MILLIS));
+
+        long sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            Bucket bucket = state.buckets.get(i);
+            if (bucket != null && bucket.minute <= now && bucket.minute > now - minutes)
+                sum += bucket.counts.get(ordinal);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the recent completions of the given advancement.
+     *
+     * @param info     the advancement.
+     * @param duration the length of the window.
+     * @param unit     the unit of the duration.
+     * @return the number of recent completions, or {@code -1} if the advancement is not counted.
+     * @see #getRecent(int, long, TimeUnit)
+     */
+    public long getRecent(@NotNull AdvancementInfo info, long duration, @NotNull TimeUnit unit) {
+        State state = this.state;
+        int ordinal = state.catalog.getOrdinal(info.getKey());
+        return ordinal < 0 ? -1 : getRecent(state, ordinal, duration, unit);
+    }
+
+    /**
+     * Registers these counters as a listener of completions and as the counters behind
+     * {@link AdvancementInfo#getRecentCompletions(long, TimeUnit)}, then schedules a snapshot every five minutes
+     * and subscribes to the refreshes of the catalog.
+     *
+     * @param plugin the plugin that owns the listener and the snapshot task.
+     * @return these counters.
+     */
+    @NotNull
+    public synchronized CompletionCounters register(@NotNull Plugin plugin) {
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+        active = this;
+
+        if (task == null)
+            task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::trySnapshot, 6000L, 6000L);
+        if (subscription == null)
+            subscription = AdvancementCatalog.subscribe(delta -> rebind(delta.getCurrent()));
+        return this;
+    }
+
+    /**
+     * Moves the counts to the ordinals of the given catalog.
+     */
+    private synchronized void rebind(AdvancementCatalog catalog) {
+        State old = state;
+        if (old.catalog == catalog) return;
+
+        // counting goes on in the new state while the old counts are moved, so completions are only lost
+        // if they were counted in the old state after it was read
+        State moved = new State(catalog);
+        state = moved;
+
+        int[] ordinals = new int[old.totals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            String key = old.catalog.get(i).getKey().toString();
+            ordinals[i] = catalog.getOrdinal(old.catalog.get(i).getKey());
+            moved.addTotal(key, ordinals[i], old.totals[i].sum());
+        }
+
+        for (Map.Entry<String, Long> entry : old.retired.entrySet()) {
+            NamespacedKey key = Keys.parse(entry.getKey());
+            moved.addTotal(entry.getKey(), key == null ? -1 : catalog.getOrdinal(key), entry.getValue());
+        }
+
+        for (int i = 0; i < BUCKETS; i++) {
+            Bucket bucket = old.buckets.get(i), target = bucket == null ? null : moved.bucket(bucket.minute);
+            if (target == null) continue;
+
+            for (int j = 0; j < ordinals.length; j++) {
+                long count = bucket.counts.get(j);
+                if (count > 0 && ordinals[j] >= 0) target.counts.addAndGet(ordinals[j], count);
+            }
+        }
+    }
+
+    private void trySnapshot() {
+        try {
+            snapshot();
+        } catch (IOException e) {
+            Bukkit.getLogger().warning("[AdvancementInfo] Could not write " + file + ": " + e);
+        }
+    }
+
+    /**
+     * Writes the counters to their snapshot file, replacing it atomically.
+     * <p>
+     * Completions counted while the snapshot is written may or may not be part of it.
+     * </p>
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public synchronized void snapshot() throws IOException {
+        State state = this.state;
+        AdvancementCatalog catalog = state.catalog;
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+
+            out.writeInt(state.totals.length);
+            for (int i = 0; i < state.totals.length; i++) {
+                out.writeUTF(catalog.get(i).getKey().toString());
+                out.writeLong(state.totals[i].sum());
+            }
+
+            out.writeInt(state.retired.size());
+            for (Map.Entry<String, Long> entry : state.retired.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+
+            for (int i = 0; i < BUCKETS; i++) {
+                Bucket bucket = state.buckets.get(i);
+                out.writeLong(bucket == null ? -1 : bucket.minute);
+                if (bucket == null) continue;
+
+                for (int j = 0; j < state.totals.length; j++) out.writeLong(bucket.counts.get(j));
+            }
+        }
+
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private boolean load() throws IOException {
+        if (!Files.isRegularFile(file)) return false;
+
+        State state = this.state;
+        AdvancementCatalog catalog = state.catalog;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) return false;
+
+            if (in.readInt() != FORMAT) return false;
+
+            int size = in.readInt();
+            if (size < 0) throw new IOException("Malformed size " + size);
+
+            int[] ordinals = new int[size];
+            for (int i = 0; i < size; i++) {
+                String key = in.readUTF();
+                state.addTotal(key, ordinals[i] = ordinalOf(catalog, key), in.readLong());
+            }
+
+            int retired = in.readInt();
+            for (int i = 0; i < retired; i++) {
+                String key = in.readUTF();
+                state.addTotal(key, ordinalOf(catalog, key), in.readLong());
+            }
+
+            for (int i = 0; i < BUCKETS; i++) {
+                long minute = in.readLong();
+                if (minute < 0) continue;
+
+                Bucket bucket = new Bucket(minute, state.totals.length);
+                for (int j = 0; j < size; j++) {
+                    long count = in.readLong();
+                    if (ordinals[j] >= 0) bucket.counts.set(ordinals[j], count);
+                }
+                state.buckets.set(i, bucket);
+            }
+        }
+        return true;
+    }
+
+    private static int ordinalOf(AdvancementCatalog catalog, String key) {
+        NamespacedKey parsed = Keys.parse(key);
+        return parsed == null ? -1 : catalog.getOrdinal(parsed);
+    }
+
+    /**
+     * Stops counting completions, cancels the snapshot task and the catalog subscription, then writes a last
+     * snapshot.
+     *
+     * @throws IOException if the snapshot cannot be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        HandlerList.unregisterAll(this);
+        if (active == this) active = null;
+
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+
+        if (subscription != null) {
+            subscription.close();
+            subscription = null;
+        }
+
+        snapshot();
+    }
+
+    @Override
+    public String toString() {
+        return "CompletionCounters{file=" + file + ", catalog=" + state.catalog.getVersion() + '}';
+    }
+
+    /**
+     * Returns the counters backing {@link AdvancementInfo#getRecentCompletions(long, TimeUnit)}.
+     *
+     * @return the last registered counters that were not closed, or {@code null} if there are none.
+     */
+    @Nullable
+    public static CompletionCounters active() {
+        return active;
+    }
+
+    /**
+     * Opens the counters of the given catalog, restoring them from the given snapshot file by advancement key.
+     *
+     * @param file    the snapshot file.
+     * @param catalog the catalog whose ordinals first index the counters.
+     * @return the counters, ready to be {@link #register(Plugin) registered}.
+     */
+    @NotNull
+    public static CompletionCounters open(@NotNull Path file, @NotNull AdvancementCatalog catalog) {
+        CompletionCounters counters = new CompletionCounters(catalog, file);
+        try {
+            counters.load();
+        } catch (IOException e) {
+            counters = new CompletionCounters(catalog, file);
+            Bukkit.getLogger().warning("[AdvancementInfo] Could not read " + file + ", counters start empty: " + e);
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,466 @@
+package me.croabeast.advancement;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Bukkit;
+import org.bukkit.NamespacedKey;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerAdvancementDoneEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * An append-only log of every advancement completion, written in the background.
+ * <p>
+ * Completions are recorded into a fixed-size ring buffer without taking any lock, so recording from the main
+ * thread costs a few array stores. A background writer drains the buffer in batches and appends them to
+ * binary segment files through a {@link FileChannel}, starting a new segment once the current one reaches the
+ * segment size. If the writer falls so far behind that the buffer is full, new completions are dropped and
+ * counted instead of stalling the server.
+ * </p>
+ * <p>
+ * Segments are named after the time of their first completion, followed by a sequence number when several
+ * segments start in the same millisecond, so {@link #query(NamespacedKey, long, long) queries} over a time
+ * range only read the segments that overlap it. Once {@link #register(Plugin) registered},
+ * the log records the completions of every advancement of the {@link AdvancementCatalog#current() current
+ * catalog}. Recording must happen on a single thread, normally the main server thread; queries are thread-safe.
+ * </p>
+ */
+public final class CompletionLog implements Listener, Closeable {
+
+    private static final int MAGIC = 0x4149434C, FORMAT = 1, HEADER = 8;
+    private static final String PREFIX = "completions-", SUFFIX = ".bin";
+
+    /**
+     * The directory holding the segment files.
+     */
+    @Getter
+    private final Path directory;
+
+    private final long segmentSize;
+    private final int mask;
+
+    private final long[] times, mostBits, leastBits;
+    private final AdvancementInfo[] infos;
+
+    /**
+     * The next sequence to read, owned by the writer, and the next sequence to write, owned by the recorder.
+     */
+    private final AtomicLong head = new AtomicLong(), tail = new AtomicLong();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean closed = false;
+
+    /**
+     * Guards the segment files, a lock rather than a monitor, so a write blocked on the disk never pins the
+     * carrier of a virtual thread.
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+    private final Map<NamespacedKey, byte[]> keys = new HashMap<>();
+
+    private FileChannel channel = null;
+    private long written = 0, lastStart = Long.MIN_VALUE;
+    private int lastSequence = 0;
+
+    private CompletionLog(Path directory, int capacity, long segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+
+        int size = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+        mask = size - 1;
+
+        times = new long[size];
+        mostBits = new long[size];
+        leastBits = new long[size];
+        infos = new AdvancementInfo[size];
+    }
+
+    /**
+     * Records a completion.
+     * <p>
+     * This method never blocks. It must always be called from the same thread.
+     * </p>
+     *
+     * @param uuid the unique id of the player.
+     * @param info the completed advancement.
+     * @param time the completion time, in epoch milliseconds.
+     * @return {@code true} if the completion was recorded; {@code false} if the log is closed or the buffer is full.
+     */
+    public boolean record(@NotNull UUID uuid, @NotNull AdvancementInfo info, long time) {
+        if (closed) return false;
+
+        long sequence = tail.get();
+        if (sequence - head.get() > mask) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        int slot = (int) sequence & mask;
+        times[slot] = time;
+        mostBits[slot] = uuid.getMostSignificantBits();
+        leastBits[slot] = uuid.getLeastSignificantBits();
+        infos[slot] = info;
+        tail.lazySet(sequence + 1);
+
+        if (!scheduled.get() && scheduled.compareAndSet(false, true))
+            Platform.ioExecutor().execute(this::drain);
+        return true;
+    }
+
+    /**
+     * Registers this log as a listener of advancement completions.
+     *
+     * @param plugin the plugin that owns the listener.
+     * @return this log.
+     */
+    @NotNull
+    public CompletionLog register(@NotNull Plugin plugin) {
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+        return this;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onCompletion(PlayerAdvancementDoneEvent event) {
+        AdvancementInfo info = AdvancementCatalog.current().get(event.getAdvancement().getKey());
+        if (info != null) record(event.getPlayer().getUniqueId(), info, System.currentTimeMillis());
+    }
+
+    private void drain() {
+        try {
+            writeLock.lock();
+            try {
+                write();
+            } finally {
+                writeLock.unlock();
+            }
+        } finally {
+            // cleared even if the write failed, so the next completion schedules a new drain
+            scheduled.set(false);
+
+            // a completion recorded after the last read but before the flag was cleared is not lost
+            if (head.get() != tail.get() && !closed && scheduled.compareAndSet(false, true))
+                Platform.ioExecutor().execute(this::drain);
+        }
+    }
+
+    /**
+     * Appends every buffered completion to the log. Must hold the write lock.
+     */
+    private void write() {
+        long from = head.get(), to = tail.get();
+        if (from == to) return;
+
+        try {
+            for (long sequence = from; sequence < to; sequence++) {
+                int slot = (int) sequence & mask;
+                AdvancementInfo info = infos[slot];
+                infos[slot] = null;
+
+                byte[] key = keys.computeIfAbsent(info.getKey(), k -> k.toString().getBytes(StandardCharsets.UTF_8));
+                int size = 27 + key.length;
+
+                if (channel == null || written + buffer.position() + size > segmentSize) {
+                    writeBuffer();
+                    rotate(times[slot]);
+                } else if (buffer.remaining() < size)
+                    writeBuffer();
+
+                buffer.putLong(times[slot]).putLong(mostBits[slot]).putLong(leastBits[slot])
+                        .put((byte) info.getFrame().ordinal())
+                        .putShort((short) key.length).put(key);
+            }
+
+            writeBuffer();
+        } catch (IOException e) {
+            buffer.clear();
+            Bukkit.getLogger().warning("[AdvancementInfo] Could not write the completion log in " + directory + ": " + e);
+        } finally {
+            head.lazySet(to);
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        if (channel == null || buffer.position() == 0) return;
+
+        buffer.flip();
+        while (buffer.hasRemaining()) written += channel.write(buffer);
+        buffer.clear();
+    }
+
+    private void rotate(long time) throws IOException {
+        if (channel != null) channel.close();
+        channel = null;
+
+        // segments keep the time of their first completion in their name, and a sequence number keeps the
+        // names of segments started in the same millisecond unique and ordered, even across restarts
+        int sequence = time == lastStart ? lastSequence + 1 : 0;
+        while (true) {
+            Path file = directory.resolve(PREFIX + time + (sequence == 0 ? "" : "-" + sequence) + SUFFIX);
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                break;
+            } catch (FileAlreadyExistsException e) {
+                sequence++;
+            }
+        }
+
+        lastStart = time;
+        lastSequence = sequence;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER).putInt(MAGIC).putInt(FORMAT);
+        header.flip();
+        while (header.hasRemaining()) channel.write(header);
+        written = HEADER;
+    }
+
+    /**
+     * Returns the number of completions dropped because the buffer was full.
+     *
+     * @return the number of dropped completions.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of completions recorded but not written yet.
+     *
+     * @return the number of buffered completions.
+     */
+    public int getPending() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * Finds the completions of an advancement within a time range.
+     * <p>
+     * Completions still buffered are written before the log is read, so the result includes every
+     * completion recorded before this call.
+     * </p>
+     *
+     * @param key  the key of the advancement, or {@code null} for every advancement.
+     * @param from the start of the range, in epoch milliseconds, inclusive.
+     * @param to   the end of the range, in epoch milliseconds, exclusive.
+     * @return a future completed with the matching completions, in the order they were recorded.
+     */
+    @NotNull
+    public CompletableFuture<List<Completion>> query(@Nullable NamespacedKey key, long from, long to) {
+        return Workers.supply(() -> {
+            writeLock.lock();
+            try {
+                write();
+            } finally {
+                writeLock.unlock();
+            }
+
+            byte[] target = key == null ? null : key.toString().getBytes(StandardCharsets.UTF_8);
+            List<Completion> result = new ArrayList<>();
+
+            try {
+                for (Path segment : segments(from, to)) read(segment, target, from, to, result);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Counts the completions of an advancement within a time range.
+     *
+     * @param key  the key of the advancement, or {@code null} for every advancement.
+     * @param from the start of the range, in epoch milliseconds, inclusive.
+     * @param to   the end of the range, in epoch milliseconds, exclusive.
+     * @return a future completed with the number of matching completions.
+     * @see #query(NamespacedKey, long, long)
+     */
+    @NotNull
+    public CompletableFuture<Integer> count(@Nullable NamespacedKey key, long from, long to) {
+        return query(key, from, to).thenApply(List::size);
+    }
+
+    /**
+     * Lists the segments that may hold completions within the given range, oldest first. A segment holds
+     * the completions from its start to the start of the next one.
+     */
+    private List<Path> segments(long from, long to) throws IOException {
+        // keyed by start time, then by sequence number within the same millisecond
+        TreeMap<Long, TreeMap<Integer, Path>> all = new TreeMap<>();
+
+        try (Stream<Path> stream = Files.list(directory)) {
+            stream.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) return;
+
+                String id = name.substring(PREFIX.length(), name.length() - SUFFIX.length());
+                int separator = id.indexOf('-', 1);
+
+                try {
+                    long start = Long.parseLong(separator < 0 ? id : id.substring(0, separator));
+                    int sequence = separator < 0 ? 0 : Integer.parseInt(id.substring(separator + 1));
+                    all.computeIfAbsent(start, k -> new TreeMap<>()).put(sequence, path);
+                } catch (NumberFormatException ignored) {}
+            });
+        }
+
+        // the segment started last before the range may still hold completions within it
+        Map.Entry<Long, TreeMap<Integer, Path>> first = all.lowerEntry(from);
+        List<Path> result = new ArrayList<>();
+        if (first != null) result.add(first.getValue().lastEntry().getValue());
+
+        for (TreeMap<Integer, Path> segments : all.subMap(from, true, to, false).values())
+            result.addAll(segments.values());
+        return result;
+    }
+
+    private void read(Path segment, @Nullable byte[] target, long from, long to, List<Completion> result) throws IOException {
+        ByteBuffer data;
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+            data = ByteBuffer.allocate((int) Math.min(in.size(), Integer.MAX_VALUE));
+            while (data.hasRemaining() && in.read(data) >= 0);
+            data.flip();
+        }
+
+        if (data.remaining() < HEADER || data.getInt() != MAGIC || data.getInt() != FORMAT) return;
+
+        Map<String, NamespacedKey> parsed = new HashMap<>();
+        AdvancementInfo.Frame[] frames = AdvancementInfo.Frame.values();
+
+        // a trailing partial record can only come from an interrupted write, so it is dropped
+        while (data.remaining() >= 27) {
+            long time = data.getLong(), most = data.getLong(), least = data.getLong();
+            int frame = data.get(), length = data.getShort() & 0xFFFF;
+            if (data.remaining() < length) break;
+
+            int start = data.position();
+            data.position(start + length);
+
+            if (time < from || time >= to || (target != null && !matches(data, start, target))) continue;
+
+            String name = new String(data.array(), start, length, StandardCharsets.UTF_8);
+            NamespacedKey key = parsed.computeIfAbsent(name, Keys::parse);
+            if (key == null) continue;
+
+            result.add(new Completion(new UUID(most, least), key,
+                    frame >= 0 && frame < frames.length ? frames[frame] : AdvancementInfo.Frame.UNKNOWN, time));
+        }
+    }
+
+    private static boolean matches(ByteBuffer data, int start, byte[] target) {
+        if (data.position() - start != target.length) return false;
+
+        for (int i = 0; i < target.length; i++)
+            if (data.get(start + i) != target[i]) return false;
+        return true;
+    }
+
+    /**
+     * Stops recording completions, writes every buffered one and closes the current segment.
+     *
+     * @throws IOException if the segment cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        HandlerList.unregisterAll(this);
+        closed = true;
+
+        writeLock.lock();
+        try {
+            write();
+            if (channel != null) channel.close();
+            channel = null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompletionLog{directory=" + directory + ", pending=" + getPending() + ", dropped=" + getDropped() + '}';
+    }
+
+    /**
+     * Opens a log in the given directory, with room for 8192 buffered completions and segments of 8 MiB.
+     *
+     * @param directory the directory holding the segment files, created if missing.
+     * @return the log, ready to be {@link #register(Plugin) registered}.
+     * @throws IOException if the directory cannot be created.
+     */
+    @NotNull
+    public static CompletionLog open(@NotNull Path directory) throws IOException {
+        return open(directory, 8192, 8L << 20);
+    }
+
+    /**
+     * Opens a log in the given directory. Every opened log starts its own segments, so existing ones are never
+     * appended to.
+     *
+     * @param directory   the directory holding the segment files, created if missing.
+     * @param capacity    the number of completions the buffer holds, rounded up to a power of two.
+     * @param segmentSize the size in bytes after which a new segment is started.
+     * @return the log, ready to be {@link #register(Plugin) registered}.
+     * @throws IOException if the directory cannot be created.
+     */
+    @NotNull
+    public static CompletionLog open(@NotNull Path directory, int capacity, long segmentSize) throws IOException {
+        Files.createDirectories(directory);
+        return new CompletionLog(directory, capacity, Math.max(segmentSize, 1024));
+    }
+
+    /**
+     * A completion read from the log.
+     */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Completion {
+
+        /**
+         * The unique id of the player.
+         */
+        @NotNull
+        private final UUID uniqueId;
+
+        /**
+         * The key of the completed advancement.
+         */
+        @NotNull
+        private final NamespacedKey key;
+
+        /**
+         * The frame the advancement had when it was completed.
+         */
+        @NotNull
+        private final AdvancementInfo.Frame frame;
+
+        /**
+         * The completion time, in epoch milliseconds.
+         */
+        private final long time;
+
+        @Override
+        public String toString() {
+            return "Completion{uniqueId=" + uniqueId + ", key=" + key + ", frame=" + frame + ", time=" + time + '}';
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package me.croabeast.advancement;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Utility class that decodes the criteria of an advancement into {@link CriterionInfo} instances.
+ * <p>
+ * Criteria loaded from datapacks are read from their JSON object. Internal server criteria are read through
+ * reflection: the fields holding the trigger, its instance and the instance conditions are looked up once per
+ * class and cached as getters, so decoding a whole catalog reflects on each criterion type a single time.
+ * The trigger id is read from the instance or the trigger on versions that store it, and from the trigger
+ * registry on newer ones.
+ * </p>
+ * <p>
+ * Internal conditions are named after the fields that hold them, so they only read like the datapack names on
+ * servers running with Mojang mappings; on obfuscated servers they are names such as {@code a} or {@code b}.
+ * Values are kept only if their class describes them in its {@code toString}, since the default one only
+ * prints an identity hash such as {@code ContextAwarePredicate@1f2e} and would differ on every load.
+ * </p>
+ */
+@UtilityClass
+class CriterionDecoder {
+
+    private final String[] KEY_TYPES = {"MinecraftKey", "ResourceLocation"};
+    private final String[] NO_CONDITIONS = new String[0];
+
+    /**
+     * The resolved layout of every criterion, instance and trigger class seen so far.
+     */
+    private final Map<Class<?>, Layout> LAYOUTS = new ConcurrentHashMap<>();
+
+    /**
+     * Whether each value class seen so far overrides {@link Object#toString()}.
+     */
+    private final Map<Class<?>, Boolean> READABLE = new ConcurrentHashMap<>();
+
+    /**
+     * The lookup of trigger ids in the trigger registry, resolved on first use; empty if there is none.
+     */
+    private volatile Optional<Function<Object, Object>> registry = null;
+
+    /**
+     * Decodes every criterion of the given advancement.
+     *
+     * @param info the advancement.
+     * @param pool the pool to deduplicate the decoded strings.
+     * @return the decoded criteria, in the order of the criteria map.
+     */
+    @NotNull
+    CriterionInfo[] decode(@NotNull AdvancementInfo info, @NotNull StringPool pool) {
+        Map<String, Object> criteria = info.getCriteria();
+        CriterionInfo[] result = new CriterionInfo[criteria.size()];
+
+        int index = 0;
+        for (Map.Entry<String, Object> entry : criteria.entrySet())
+            result[index++] = decode(pool.intern(entry.getKey()), entry.getValue(), pool);
+
+        return result;
+    }
+
+    @NotNull
+    private CriterionInfo decode(String name, @Nullable Object value, StringPool pool) {
+        if (value == null) return new CriterionInfo(name, null, NO_CONDITIONS);
+        if (value instanceof CriterionInfo) return (CriterionInfo) value;
+
+        try {
+            return value instanceof JsonElement ?
+                    fromJson(name, (JsonElement) value, pool) :
+                    fromInternal(name, value, pool);
+        } catch (Exception e) {
+            return new CriterionInfo(name, null, NO_CONDITIONS);
+        }
+    }
+
+    private CriterionInfo fromJson(String name, JsonElement element, StringPool pool) {
+        if (!element.isJsonObject()) return new CriterionInfo(name, null, NO_CONDITIONS);
+        JsonObject object = element.getAsJsonObject();
+
+        JsonElement trigger = object.get("trigger");
+        JsonElement conditions = object.get("conditions");
+
+        List<String> list = new ArrayList<>();
+        if (conditions != null && conditions.isJsonObject())
+            for (Map.Entry<String, JsonElement> entry : conditions.getAsJsonObject().entrySet()) {
+                JsonElement value = entry.getValue();
+                list.add(pool.intern(entry.getKey()));
+                list.add(pool.intern(value.isJsonPrimitive() ? value.getAsString() : value.toString()));
+            }
+
+        String id = trigger != null && trigger.isJsonPrimitive() ? trigger.getAsString() : null;
+        if (id != null && id.indexOf(':') < 0) id = "minecraft:" + id;
+
+        return new CriterionInfo(name, pool.intern(id), list.toArray(NO_CONDITIONS));
+    }
+
+    private CriterionInfo fromInternal(String name, Object criterion, StringPool pool) {
+        Layout layout = layout(criterion.getClass());
+
+        Object instance = layout.instance == null ? null : layout.instance.apply(criterion);
+        Object trigger = layout.trigger == null ? null : layout.trigger.apply(criterion);
+
+        // criteria of older versions are bare trigger instances
+        if (instance == null && trigger == null) instance = criterion;
+
+        Object id = null;
+        if (instance != null) id = layout(instance.getClass()).id(instance);
+        if (id == null && trigger != null) id = layout(trigger.getClass()).id(trigger);
+        if (id == null && trigger != null) id = registryKey(trigger);
+
+        List<String> list = new ArrayList<>();
+        if (instance != null) {
+            Layout conditions = layout(instance.getClass());
+
+            for (int i = 0; i < conditions.names.length; i++) {
+                String value = summarize(conditions.getters[i].apply(instance));
+                if (value == null) continue;
+
+                list.add(pool.intern(conditions.names[i]));
+                list.add(pool.intern(value));
+            }
+        }
+
+        return new CriterionInfo(name, pool.intern(id == null ? null : id.toString()), list.toArray(NO_CONDITIONS));
+    }
+
+    /**
+     * Returns a readable form of a condition value, or {@code null} if the condition is not set or cannot be
+     * described.
+     */
+    @Nullable
+    private String summarize(@Nullable Object value) {
+        if (value instanceof Optional<?>) value = ((Optional<?>) value).orElse(null);
+        if (value == null) return null;
+
+        if (value instanceof Collection<?> && ((Collection<?>) value).isEmpty()) return null;
+        if (value instanceof Map<?, ?> && ((Map<?, ?>) value).isEmpty()) return null;
+        if (!isReadable(value)) return null;
+
+        return value instanceof Object[] ? Arrays.deepToString((Object[]) value) : value.toString();
+    }
+
+    /**
+     * Checks if the given value, and every element it holds, has a {@code toString} of its own.
+     */
+    private boolean isReadable(@Nullable Object value) {
+        if (value == null) return true;
+
+        if (value instanceof Object[]) {
+            for (Object element : (Object[]) value)
+                if (!isReadable(element)) return false;
+            return true;
+        }
+
+        if (value instanceof Collection<?>) {
+            for (Object element : (Collection<?>) value)
+                if (!isReadable(element)) return false;
+            return true;
+        }
+
+        if (value instanceof Map<?, ?>) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+                if (!isReadable(entry.getKey()) || !isReadable(entry.getValue())) return false;
+            return true;
+        }
+
+        return READABLE.computeIfAbsent(value.getClass(), type -> {
+            try {
+                return type.getMethod("toString").getDeclaringClass() != Object.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        });
+    }
+
+    private Layout layout(Class<?> type) {
+        Layout layout = LAYOUTS.get(type);
+        Telemetry.cache("criteria", layout != null);
+        if (layout != null) return layout;
+
+        layout = new Layout(type);
+        Layout previous = LAYOUTS.putIfAbsent(type, layout);
+        return previous != null ? previous : layout;
+    }
+
+    @Nullable
+    private Object registryKey(Object trigger) {
+        Optional<Function<Object, Object>> lookup = registry;
+        if (lookup == null) registry = lookup = Optional.ofNullable(findRegistry(trigger));
+
+        try {
+            return lookup.map(function -> function.apply(trigger)).orElse(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Finds, among the built-in registries, the one that holds the given trigger. Defaulted registries return
+     * their default key for any unknown value, so a key only counts if it maps back to the trigger.
+     */
+    @Nullable
+    private Function<Object, Object> findRegistry(Object trigger) {
+        Class<?> registries = ReflectionUtils.clazz("net.minecraft.core.registries.BuiltInRegistries");
+        if (registries == null) return null;
+
+        for (Field field : registries.getFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) continue;
+
+            Object registry;
+            try {
+                registry = field.get(null);
+            } catch (Exception e) {
+                continue;
+            }
+            if (registry == null) continue;
+
+            Method getKey = null, getValue = null;
+            for (Method method : registry.getClass().getMethods()) {
+                if (method.getParameterCount() != 1) continue;
+
+                Class<?> parameter = method.getParameterTypes()[0];
+                if (parameter == Object.class && isKey(method.getReturnType())) getKey = method;
+                else if (isKey(parameter) && method.getReturnType() == Object.class) getValue = method;
+            }
+            if (getKey == null || getValue == null) continue;
+
+            try {
+                Object key = getKey.invoke(registry, trigger);
+                if (key == null || getValue.invoke(registry, key) != trigger) continue;
+            } catch (Exception e) {
+                continue;
+            }
+
+            Method lookup = getKey;
+            return object -> {
+                try {
+                    return lookup.invoke(registry, object);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks whether the given class is the internal resource location class, under any of its names.
+     */
+    boolean isKey(Class<?> type) {
+        for (String name : KEY_TYPES)
+            if (type.getSimpleName().equals(name)) return true;
+        return false;
+    }
+
+    /**
+     * The cached members of a criterion, trigger or trigger instance class.
+     */
+    private static final class Layout {
+
+        private Function<Object, Object> instance = null, trigger = null;
+        private Method id = null;
+
+        private final String[] names;
+        private final Function<Object, Object>[] getters;
+
+        @SuppressWarnings("unchecked")
+        private Layout(Class<?> type) {
+            for (Method method : type.getMethods())
+                if (method.getParameterCount() == 0 && isKey(method.getReturnType()) &&
+                        !Modifier.isStatic(method.getModifiers())) {
+                    id = method;
+                    break;
+                }
+
+            List<String> names = new ArrayList<>();
+            List<Function<Object, Object>> getters = new ArrayList<>();
+
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass())
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) continue;
+
+                    Class<?> fieldType = field.getType();
+                    if (isKey(fieldType)) continue;
+
+                    Function<Object, Object> getter;
+                    try {
+                        field.setAccessible(true);
+                        getter = Platform.getter(field);
+                    } catch (Exception e) {
+                        continue;
+                    }
+
+                    String simple = fieldType.getSimpleName();
+                    if (simple.contains("Instance")) {
+                        if (instance == null) instance = getter;
+                    } else if (simple.contains("Trigger")) {
+                        if (trigger == null) trigger = getter;
+                    } else {
+                        names.add(field.getName());
+                        getters.add(getter);
+                    }
+                }
+
+            this.names = names.toArray(new String[0]);
+            this.getters = getters.toArray(new Function[0]);
+        }
+
+        @Nullable
+        private Object id(Object object) {
+            try {
+                return id == null ? null : id.invoke(object);
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    }
+}
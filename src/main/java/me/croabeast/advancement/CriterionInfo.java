@@ -0,0 +1,126 @@
+package me.croabeast.advancement;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * The decoded trigger and conditions of a single criterion of an advancement.
+ * <p>
+ * Criteria are held by the server as internal objects whose conditions can only be read through reflection.
+ * An {@link AdvancementCatalog} decodes every criterion once, on first request, into this immutable form, so
+ * screens showing what is left to do read plain strings. Conditions are kept as a flat array of names and
+ * values, which are deduplicated across the catalog.
+ * </p>
+ *
+ * @see AdvancementCatalog#getCriteria(int)
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public final class CriterionInfo {
+
+    /**
+     * The name of the criterion, as used by the advancement requirements.
+     */
+    @Getter
+    @NotNull
+    private final String name;
+
+    /**
+     * The id of the trigger of the criterion, such as {@code minecraft:inventory_changed}, or {@code null} if
+     * it could not be decoded.
+     */
+    @Getter
+    @Nullable
+    private final String trigger;
+
+    /**
+     * The names and values of the conditions, alternating.
+     */
+    private final String[] conditions;
+
+    /**
+     * Returns the number of decoded conditions.
+     *
+     * @return the condition count.
+     */
+    public int getConditionCount() {
+        return conditions.length / 2;
+    }
+
+    /**
+     * Returns the name of a condition, such as {@code items} or {@code player}.
+     *
+     * @param index the condition index.
+     * @return the condition name.
+     */
+    @NotNull
+    public String getConditionName(int index) {
+        return conditions[check(index) * 2];
+    }
+
+    /**
+     * Returns a readable summary of the value of a condition.
+     *
+     * @param index the condition index.
+     * @return the condition value.
+     */
+    @NotNull
+    public String getConditionValue(int index) {
+        return conditions[check(index) * 2 + 1];
+    }
+
+    private int check(int index) {
+        if (index < 0 || index >= getConditionCount())
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + getConditionCount());
+        return index;
+    }
+
+    /**
+     * Returns the value of the condition with the given name.
+     *
+     * @param name the condition name.
+     * @return the condition value, or {@code null} if the criterion has no such condition.
+     */
+    @Nullable
+    public String getCondition(@NotNull String name) {
+        for (int i = 0; i < conditions.length; i += 2)
+            if (conditions[i].equals(name)) return conditions[i + 1];
+        return null;
+    }
+
+    /**
+     * Returns every condition as a map, in declaration order.
+     *
+     * @return a new unmodifiable map of condition names to values.
+     */
+    @NotNull
+    public Map<String, String> getConditions() {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < conditions.length; i += 2) map.put(conditions[i], conditions[i + 1]);
+        return Collections.unmodifiableMap(map);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CriterionInfo)) return false;
+
+        CriterionInfo other = (CriterionInfo) o;
+        return name.equals(other.name) && Objects.equals(trigger, other.trigger) &&
+                Arrays.equals(conditions, other.conditions);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * name.hashCode() + Objects.hashCode(trigger)) + Arrays.hashCode(conditions);
+    }
+
+    @Override
+    public String toString() {
+        return "CriterionInfo{name=" + name + ", trigger=" + trigger + ", conditions=" + getConditions() + '}';
+    }
+}
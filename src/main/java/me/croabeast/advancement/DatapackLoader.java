@@ -0,0 +1,375 @@
+package me.croabeast.advancement;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import lombok.experimental.UtilityClass;
+import org.bukkit.NamespacedKey;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Utility class that builds an {@link AdvancementCatalog} straight from datapack files, without a running server.
+ * <p>
+ * Sources are datapack folders or zip files; every {@code data/<namespace>/advancements/**.json} file (or
+ * {@code advancement/} since 1.21) is parsed with a streaming JSON parser, in parallel across files. When several
+ * sources define the same advancement, the last source wins, as with enabled datapacks.
+ * </p>
+ * <p>
+ * Only advancements with a display are loaded, matching the catalogs built from a server. The loaded infos are
+ * {@link AdvancementInfo#isDetached() detached}: their criteria map to the JSON object of each criterion, their
+ * rewards are the JSON object of the rewards, and their icon is only built when a server is running.
+ * {@link AdvancementInfo#getBukkit()} is only supported while a server is running.
+ * </p>
+ */
+@UtilityClass
+public class DatapackLoader {
+
+    /**
+     * Reads the advancements of the given sources.
+     * <p>
+     * Files are parsed in parallel on the calling thread's pool. Malformed files are skipped and reported by
+     * the {@link AdvancementCatalog#getExtractionFailures() extraction failures} of the catalog, unless a later
+     * source defines the same advancement.
+     * </p>
+     *
+     * @param sources the datapack folders or zip files, in load order.
+     * @return a new catalog, ordered by key.
+     * @throws IOException if a source cannot be listed or opened.
+     */
+    @NotNull
+    public AdvancementCatalog read(@NotNull Collection<Path> sources) throws IOException {
+        Map<NamespacedKey, AdvancementInfo> infos = new HashMap<>();
+        Map<NamespacedKey, String> failures = new TreeMap<>(Comparator.comparing(NamespacedKey::toString));
+        StringPool pool = new StringPool();
+
+        for (Path source : sources) {
+            if (Files.isDirectory(source)) {
+                readAll(source, infos, failures, pool);
+                continue;
+            }
+
+            try (FileSystem zip = FileSystems.newFileSystem(source, (ClassLoader) null)) {
+                for (Path root : zip.getRootDirectories()) readAll(root, infos, failures, pool);
+            }
+        }
+
+        List<AdvancementInfo> list = new ArrayList<>(infos.values());
+        list.sort(Comparator.comparing(info -> info.getKey().toString()));
+        return AdvancementCatalog.of(list, pool, failures);
+    }
+
+    /**
+     * Reads the advancements of the given sources.
+     *
+     * @param sources the datapack folders or zip files, in load order.
+     * @return a new catalog, ordered by key.
+     * @throws IOException if a source cannot be listed or opened.
+     * @see #read(Collection)
+     */
+    @NotNull
+    public AdvancementCatalog read(@NotNull Path... sources) throws IOException {
+        return read(Arrays.asList(sources));
+    }
+
+    /**
+     * Reads the advancements of the given sources on the library worker threads.
+     *
+     * @param sources the datapack folders or zip files, in load order.
+     * @return a future completed with a new catalog, ordered by key.
+     * @see #read(Collection)
+     */
+    @NotNull
+    public CompletableFuture<AdvancementCatalog> load(@NotNull Collection<Path> sources) {
+        List<Path> copy = new ArrayList<>(sources);
+        return Workers.supply(() -> {
+            try {
+                return read(copy);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void readAll(Path root, Map<NamespacedKey, AdvancementInfo> infos, Map<NamespacedKey, String> failures,
+                         StringPool pool) throws IOException {
+        Path data = root.resolve("data");
+        if (!Files.isDirectory(data)) return;
+
+        List<Path[]> files = new ArrayList<>();
+        try (DirectoryStream<Path> namespaces = Files.newDirectoryStream(data)) {
+            for (Path namespace : namespaces) {
+                for (String folder : new String[] {"advancements", "advancement"}) {
+                    Path directory = namespace.resolve(folder);
+                    if (!Files.isDirectory(directory)) continue;
+
+                    try (Stream<Path> stream = Files.walk(directory)) {
+                        stream.filter(path -> path.toString().endsWith(".json") && Files.isRegularFile(path))
+                                .forEach(path -> files.add(new Path[] {namespace, directory, path}));
+                    }
+                }
+            }
+        }
+
+        // each file parses into an info, a failure message, or nothing for advancements without a display
+        List<Map.Entry<NamespacedKey, Object>> parsed = files.parallelStream()
+                .map(entry -> {
+                    String namespace = pool.intern(entry[0].getFileName().toString().replace("/", ""));
+                    String path = entry[1].relativize(entry[2]).toString().replace('\\', '/');
+
+                    NamespacedKey key;
+                    try {
+                        key = pool.intern(new NamespacedKey(namespace, path.substring(0, path.length() - 5)));
+                    } catch (IllegalArgumentException e) {
+                        // invalid file names make invalid keys, which the server skips too
+                        return null;
+                    }
+
+                    try (Reader reader = Files.newBufferedReader(entry[2], StandardCharsets.UTF_8)) {
+                        AdvancementInfo info = parse(key, reader, pool);
+                        return info == null ? null : new AbstractMap.SimpleImmutableEntry<NamespacedKey, Object>(key, info);
+                    } catch (Exception e) {
+                        return new AbstractMap.SimpleImmutableEntry<NamespacedKey, Object>(key, e.toString());
+                    }
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        for (Map.Entry<NamespacedKey, Object> entry : parsed) {
+            if (entry.getValue() instanceof AdvancementInfo) {
+                infos.put(entry.getKey(), (AdvancementInfo) entry.getValue());
+                failures.remove(entry.getKey());
+            } else failures.put(entry.getKey(), (String) entry.getValue());
+        }
+    }
+
+    /**
+     * Parses a single advancement definition.
+     *
+     * @param key    the key of the advancement.
+     * @param reader the reader of the advancement JSON.
+     * @param pool   the pool of the catalog being built.
+     * @return the advancement info, or {@code null} if the advancement has no display.
+     * @throws IOException if the content cannot be read or is malformed.
+     */
+    @Nullable
+    AdvancementInfo parse(NamespacedKey key, Reader reader, StringPool pool) throws IOException {
+        JsonReader json = new JsonReader(reader);
+
+        NamespacedKey parent = null;
+        Display display = null;
+        Map<String, Object> criteria = new LinkedHashMap<>();
+        Object rewards = null;
+        List<List<String>> requirements = null;
+
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "parent":
+                    parent = pool.intern(Keys.parse(json.nextString()));
+                    break;
+
+                case "display":
+                    display = readDisplay(json);
+                    break;
+
+                case "criteria":
+                    json.beginObject();
+                    while (json.hasNext())
+                        criteria.put(pool.intern(json.nextName()), JsonParser.parseReader(json));
+                    json.endObject();
+                    break;
+
+                case "rewards":
+                    rewards = JsonParser.parseReader(json);
+                    break;
+
+                case "requirements":
+                    requirements = new ArrayList<>();
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        List<String> group = new ArrayList<>();
+                        json.beginArray();
+                        while (json.hasNext()) group.add(pool.intern(json.nextString()));
+                        json.endArray();
+                        requirements.add(Platform.copyOf(group));
+                    }
+                    json.endArray();
+                    break;
+
+                default:
+                    json.skipValue();
+                    break;
+            }
+        }
+        json.endObject();
+
+        if (display == null) return null;
+
+        // without explicit requirements, every criterion is required
+        if (requirements == null) {
+            requirements = new ArrayList<>(criteria.size());
+            for (String criterion : criteria.keySet())
+                requirements.add(Collections.singletonList(criterion));
+        }
+
+        String title = display.title != null ? display.title : defaultTitle(key);
+        String description = display.description != null ? display.description : "No description.";
+
+        return new DetachedInfo(
+                key, parent,
+                pool.intern(title), pool.intern(description.replaceAll("\\\\n", " ")),
+                IconCache.fromMaterial(display.item, display.count),
+                display.showToast, display.announceChat, display.hidden,
+                0, 0, AdvancementInfo.Frame.fromName(display.frame),
+                Collections.unmodifiableMap(criteria), rewards,
+                Platform.copyOf(requirements)
+        );
+    }
+
+    /**
+     * Returns the title the server falls back to for an advancement without one, humanized from its key.
+     */
+    String defaultTitle(NamespacedKey key) {
+        String name = key.getKey();
+        name = name.substring(name.lastIndexOf('/') + 1).replace('_', ' ');
+
+        return Arrays.stream(name.split(" "))
+                .filter(s -> !s.isEmpty())
+                .map(s -> s.substring(0, 1).toUpperCase(Locale.ENGLISH) + s.substring(1).toLowerCase(Locale.ENGLISH))
+                .collect(Collectors.joining(" "));
+    }
+
+    private Display readDisplay(JsonReader json) throws IOException {
+        Display display = new Display();
+        json.beginObject();
+
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "title":
+                    display.title = readText(json);
+                    break;
+
+                case "description":
+                    display.description = readText(json);
+                    break;
+
+                case "frame":
+                    display.frame = json.nextString();
+                    break;
+
+                case "show_toast":
+                    display.showToast = json.nextBoolean();
+                    break;
+
+                case "announce_to_chat":
+                    display.announceChat = json.nextBoolean();
+                    break;
+
+                case "hidden":
+                    display.hidden = json.nextBoolean();
+                    break;
+
+                case "icon":
+                    json.beginObject();
+                    while (json.hasNext()) {
+                        String name = json.nextName();
+                        if (name.equals("item") || name.equals("id"))
+                            display.item = json.nextString();
+                        else if (name.equals("count"))
+                            display.count = json.nextInt();
+                        else json.skipValue();
+                    }
+                    json.endObject();
+                    break;
+
+                default:
+                    json.skipValue();
+                    break;
+            }
+        }
+
+        json.endObject();
+        return display;
+    }
+
+    /**
+     * Reads a JSON text component as plain text, like the server does for titles and descriptions.
+     */
+    private String readText(JsonReader json) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        appendText(json, builder);
+        return builder.toString();
+    }
+
+    private void appendText(JsonReader json, StringBuilder builder) throws IOException {
+        JsonToken token = json.peek();
+
+        if (token == JsonToken.BEGIN_ARRAY) {
+            json.beginArray();
+            while (json.hasNext()) appendText(json, builder);
+            json.endArray();
+            return;
+        }
+
+        if (token != JsonToken.BEGIN_OBJECT) {
+            if (token == JsonToken.NULL) json.nextNull();
+            else builder.append(json.nextString());
+            return;
+        }
+
+        String text = null, translate = null, fallback = null;
+        StringBuilder extra = null;
+
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "text":
+                    text = json.nextString();
+                    break;
+
+                case "translate":
+                    translate = json.nextString();
+                    break;
+
+                case "fallback":
+                    fallback = json.nextString();
+                    break;
+
+                case "extra":
+                    extra = new StringBuilder();
+                    appendText(json, extra);
+                    break;
+
+                default:
+                    json.skipValue();
+                    break;
+            }
+        }
+        json.endObject();
+
+        // translations are not available offline, so the fallback or the key itself is used
+        builder.append(text != null ? text : fallback != null ? fallback : translate != null ? translate : "");
+        if (extra != null) builder.append(extra);
+    }
+
+    /**
+     * The display fields of an advancement definition, with the defaults of the game.
+     */
+    private static final class Display {
+
+        private String title, description, frame = "task", item;
+        private int count = 1;
+        private boolean showToast = true, announceChat = true, hidden = false;
+    }
+}
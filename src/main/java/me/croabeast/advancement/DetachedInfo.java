@@ -0,0 +1,285 @@
+package me.croabeast.advancement;
+
+import com.google.gson.JsonElement;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.NamespacedKey;
+import org.bukkit.advancement.Advancement;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * A detached snapshot of an {@link AdvancementInfo} that holds no internal server objects.
+ * <p>
+ * {@code DetachedInfo} copies out the display data, criteria, rewards and requirements of another
+ * info, and keeps only the keys of the advancement and its parent. Internal criteria are decoded into
+ * {@link CriterionInfo} values and internal rewards into their datapack JSON form, so no server object is
+ * copied. The Bukkit {@link Advancement} wrappers are looked up by key on demand, so a cached snapshot never
+ * pins the internal advancement graph of a previous datapack load.
+ * </p>
+ * <p>
+ * Infos read straight from datapack files by the {@link DatapackLoader} are also detached snapshots, built
+ * without a running server.
+ * </p>
+ *
+ * @see AdvancementInfo#detach()
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+final class DetachedInfo implements AdvancementInfo {
+
+    /**
+     * The key of the advancement.
+     */
+    @NotNull
+    private final NamespacedKey key;
+
+    /**
+     * The key of the parent advancement, if any.
+     */
+    @Nullable
+    private final NamespacedKey parentKey;
+
+    /**
+     * The title of the advancement.
+     */
+    @NotNull
+    private final String title;
+
+    /**
+     * The description of the advancement.
+     */
+    @NotNull
+    private final String description;
+
+    /**
+     * The shared icon representing the advancement.
+     */
+    @Nullable
+    private final ItemStack sharedIcon;
+
+    /**
+     * Indicates whether a toast notification should be shown when the advancement is achieved.
+     */
+    @Getter(AccessLevel.NONE)
+    private final boolean showToast;
+
+    /**
+     * Indicates whether the advancement's completion is announced in chat.
+     */
+    @Getter(AccessLevel.NONE)
+    private final boolean announceChat;
+
+    /**
+     * Indicates whether the advancement is hidden.
+     */
+    private final boolean hidden;
+
+    /**
+     * The x-coordinate for displaying the advancement.
+     */
+    private final float x;
+
+    /**
+     * The y-coordinate for displaying the advancement.
+     */
+    private final float y;
+
+    /**
+     * The frame type of the advancement.
+     */
+    @NotNull
+    private final Frame frame;
+
+    /**
+     * An unmodifiable copy of the criteria of the advancement, mapped to their JSON objects or to their decoded
+     * {@link CriterionInfo}.
+     */
+    @NotNull
+    private final Map<String, Object> criteria;
+
+    /**
+     * The rewards granted upon completing the advancement, as JSON.
+     */
+    @Nullable
+    private final Object rewards;
+
+    /**
+     * An unmodifiable copy of the requirements of the advancement.
+     */
+    @Nullable
+    private final List<List<String>> requirements;
+
+    /**
+     * Constructs a new {@code DetachedInfo} by copying the data of the given info.
+     *
+     * @param info the info to copy (must not be {@code null}).
+     */
+    DetachedInfo(AdvancementInfo info) {
+        this(info, new StringPool());
+    }
+
+    /**
+     * Constructs a new {@code DetachedInfo} by copying the data of the given info, deduplicating its keys
+     * and strings through the given pool.
+     *
+     * @param info the info to copy (must not be {@code null}).
+     * @param pool the pool of the catalog being built.
+     */
+    DetachedInfo(AdvancementInfo info, StringPool pool) {
+        key = pool.intern(info.getKey());
+        parentKey = pool.intern(info.getParentKey());
+
+        title = pool.intern(info.getTitle());
+        description = pool.intern(info.getDescription());
+        sharedIcon = IconCache.share(info.getSharedIcon());
+
+        showToast = info.doesShowToast();
+        announceChat = info.doesAnnounceToChat();
+        hidden = info.isHidden();
+
+        x = info.getX();
+        y = info.getY();
+        frame = info.getFrame();
+
+        // JSON criteria are already library data; internal ones are decoded instead of kept
+        CriterionInfo[] decoded = CriterionDecoder.decode(info, pool);
+        Map<String, Object> map = new LinkedHashMap<>();
+
+        int index = 0;
+        for (Map.Entry<String, Object> entry : info.getCriteria().entrySet()) {
+            Object value = entry.getValue();
+            map.put(decoded[index].getName(), value instanceof JsonElement ? value : decoded[index]);
+            index++;
+        }
+
+        criteria = Collections.unmodifiableMap(map);
+        rewards = RewardsDecoder.decode(info.getRewards());
+        requirements = pool.intern(info.getRequirements());
+    }
+
+    /**
+     * Constructs a new {@code DetachedInfo} from a record decoded by the {@link CatalogCodec}. Records only carry
+     * criterion names, so every criterion value is {@code null}, and they carry no rewards.
+     *
+     * @param record the decoded record.
+     * @param pool   the pool of the catalog being built.
+     * @throws IllegalArgumentException if the key of the record is not a valid key.
+     */
+    DetachedInfo(CatalogRecord record, StringPool pool) {
+        NamespacedKey parsed = Keys.parse(record.getKey());
+        if (parsed == null) throw new IllegalArgumentException("Invalid key: " + record.getKey());
+
+        key = pool.intern(parsed);
+        parentKey = pool.intern(Keys.parse(record.getParentKey()));
+
+        title = pool.intern(record.getTitle());
+        description = pool.intern(record.getDescription());
+
+        ItemStack icon = IconCache.deserialize(record.getIconData());
+        sharedIcon = icon != null ? icon : IconCache.fromMaterial(record.getIconMaterial(), record.getIconAmount());
+
+        showToast = record.doesShowToast();
+        announceChat = record.doesAnnounceToChat();
+        hidden = record.isHidden();
+
+        x = record.getX();
+        y = record.getY();
+        frame = record.getFrame();
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (String criterion : record.getCriteria()) map.put(pool.intern(criterion), null);
+
+        criteria = Collections.unmodifiableMap(map);
+        rewards = null;
+        requirements = pool.intern(record.getRequirements());
+    }
+
+    /**
+     * Returns the record the {@link CatalogCodec} ships for the given info.
+     *
+     * @param info the info to ship.
+     * @return the record, with the criterion names and no rewards.
+     */
+    static CatalogRecord toRecord(AdvancementInfo info) {
+        NamespacedKey parent = info.getParentKey();
+        ItemStack icon = info.getSharedIcon();
+
+        return new CatalogRecord(
+                info.getKey().toString(), parent == null ? null : parent.toString(),
+                info.getTitle(), info.getDescription(),
+                icon == null ? null : icon.getType().name(), icon == null ? 0 : icon.getAmount(),
+                IconCache.serialize(icon),
+                info.doesShowToast(), info.doesAnnounceToChat(), info.isHidden(),
+                info.getX(), info.getY(), info.getFrame(),
+                Collections.unmodifiableList(new ArrayList<>(info.getCriteria().keySet())),
+                info.getRequirements()
+        );
+    }
+
+    /**
+     * Looks up the Bukkit advancement by this snapshot's key.
+     *
+     * @return the Bukkit advancement.
+     * @throws IllegalStateException if no server is running, or the advancement is not loaded on the server.
+     */
+    @NotNull
+    public Advancement getBukkit() {
+        if (Bukkit.getServer() == null)
+            throw new IllegalStateException("No server is running to look up " + key);
+
+        Advancement advancement = Bukkit.getAdvancement(key);
+        if (advancement == null)
+            throw new IllegalStateException("Advancement " + key + " is no longer loaded");
+
+        return advancement;
+    }
+
+    /**
+     * Looks up the parent Bukkit advancement by this snapshot's parent key.
+     *
+     * @return the parent advancement, or {@code null} if there is none, it is not loaded or no server is running.
+     */
+    @Nullable
+    public Advancement getParent() {
+        return parentKey == null || Bukkit.getServer() == null ? null : Bukkit.getAdvancement(parentKey);
+    }
+
+    /**
+     * Indicates whether this advancement should show a toast notification.
+     *
+     * @return {@code true} if a toast should be shown; {@code false} otherwise.
+     */
+    public boolean doesShowToast() {
+        return showToast;
+    }
+
+    /**
+     * Indicates whether this advancement should announce its completion to chat.
+     *
+     * @return {@code true} if it should announce to chat; {@code false} otherwise.
+     */
+    public boolean doesAnnounceToChat() {
+        return announceChat;
+    }
+
+    @Override
+    public boolean isDetached() {
+        return true;
+    }
+
+    /**
+     * Returns a string representation of this {@code DetachedInfo} instance.
+     *
+     * @return a string representation of this advancement info.
+     */
+    @Override
+    public String toString() {
+        return "DetachedAdvancementInfo{key=" + key + ", parent=" + parentKey + '}';
+    }
+}
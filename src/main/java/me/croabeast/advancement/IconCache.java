@@ -0,0 +1,188 @@
+package me.croabeast.advancement;
+
+import lombok.experimental.UtilityClass;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Utility class that deduplicates advancement icons across every {@link AdvancementInfo} instance.
+ * <p>
+ * Icons are kept as shared canonical instances: two advancements with equal icons will
+ * reference the very same {@link ItemStack}. Internal NMS items are converted into Bukkit stacks
+ * only once, and the reflective {@code CraftItemStack} constructor is resolved a single time.
+ * Shared icons are always private plain Bukkit copies, so they never keep internal server items or
+ * stacks owned by callers alive, and they are weakly referenced, so icons of advancements dropped by
+ * a reload are collected with them.
+ * </p>
+ * <p>
+ * Shared instances are only exposed through {@link AdvancementInfo#getSharedIcon()};
+ * {@link AdvancementInfo#getIcon()} hands out copies.
+ * </p>
+ *
+ * @see AdvancementInfo#getSharedIcon()
+ */
+@UtilityClass
+class IconCache {
+
+    /**
+     * Canonical icon instances, weakly keyed by themselves to deduplicate equal stacks.
+     */
+    private final Map<ItemStack, WeakReference<ItemStack>> SHARED = new WeakHashMap<>();
+
+    /**
+     * Already converted NMS items, weakly keyed so stale server objects can be collected.
+     */
+    private final Map<Object, ItemStack> CONVERTED = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * The lazily resolved {@code CraftItemStack} constructor that accepts an NMS item.
+     */
+    private volatile Constructor<?> constructor = null;
+
+    /**
+     * Returns the shared canonical instance of the given icon.
+     *
+     * @param icon the icon to deduplicate.
+     * @return the shared icon equal to the given one, or {@code null} if the icon is {@code null}.
+     */
+    @Nullable
+    ItemStack share(@Nullable ItemStack icon) {
+        if (icon == null) return null;
+
+        synchronized (SHARED) {
+            WeakReference<ItemStack> reference = SHARED.get(icon);
+            ItemStack shared = reference == null ? null : reference.get();
+
+            Telemetry.cache("icons", shared != null);
+            if (shared != null) return shared;
+
+            // Store a private plain Bukkit copy, so the cache never pins internal server items and
+            // never shares a stack the caller may still modify.
+            shared = new ItemStack(icon);
+            SHARED.put(shared, new WeakReference<>(shared));
+            return shared;
+        }
+    }
+
+    /**
+     * Returns the shared icon of the given material, for infos built from data files or network payloads.
+     * <p>
+     * Icons need the server item factory, so no icon is built while no server is running.
+     * </p>
+     *
+     * @param material the material name or key, such as {@code minecraft:stone}.
+     * @param amount   the amount of items.
+     * @return the shared icon, or {@code null} if the material is unknown or no server is running.
+     */
+    @Nullable
+    ItemStack fromMaterial(@Nullable String material, int amount) {
+        if (material == null || Bukkit.getServer() == null) return null;
+
+        Material type = Material.matchMaterial(material);
+        return type == null ? null : share(new ItemStack(type, amount));
+    }
+
+    /**
+     * Returns the Bukkit configuration form of the given icon, which keeps its item meta.
+     *
+     * @param icon the icon to serialize.
+     * @return the serialized icon, or {@code null} if the icon is {@code null} or has no meta to keep.
+     */
+    @Nullable
+    String serialize(@Nullable ItemStack icon) {
+        if (icon == null || !icon.hasItemMeta()) return null;
+
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.set("icon", icon);
+        return yaml.saveToString();
+    }
+
+    /**
+     * Returns the shared icon read from its {@link #serialize(ItemStack) configuration form}.
+     *
+     * @param data the serialized icon.
+     * @return the shared icon, or {@code null} if it cannot be read or no server is running.
+     */
+    @Nullable
+    ItemStack deserialize(@Nullable String data) {
+        if (data == null || Bukkit.getServer() == null) return null;
+
+        YamlConfiguration yaml = new YamlConfiguration();
+        try {
+            yaml.loadFromString(data);
+        } catch (InvalidConfigurationException e) {
+            return null;
+        }
+        return share(yaml.getItemStack("icon"));
+    }
+
+    /**
+     * Returns a modifiable copy of the given icon.
+     *
+     * @param icon the icon to copy.
+     * @return a copy of the icon, or {@code null} if the icon is {@code null}.
+     */
+    @Nullable
+    ItemStack copy(@Nullable ItemStack icon) {
+        return icon == null ? null : icon.clone();
+    }
+
+    /**
+     * Converts an internal NMS item representation to a shared Bukkit {@link ItemStack}.
+     * <p>
+     * Each NMS item is converted only once; later calls with the same item return the cached icon.
+     * </p>
+     *
+     * @param nmsItem the internal item object.
+     * @return the corresponding shared {@link ItemStack}, or {@code null} if conversion fails.
+     */
+    @Nullable
+    ItemStack fromNms(@Nullable Object nmsItem) {
+        if (nmsItem == null) return null;
+
+        ItemStack cached = CONVERTED.get(nmsItem);
+        Telemetry.cache("nms-icons", cached != null);
+        if (cached != null) return cached;
+
+        Constructor<?> ct = getConstructor(nmsItem.getClass());
+        if (ct == null) return null;
+
+        ItemStack icon;
+        try {
+            icon = share((ItemStack) ct.newInstance(nmsItem));
+        } catch (Exception e) {
+            return null;
+        }
+
+        CONVERTED.put(nmsItem, icon);
+        return icon;
+    }
+
+    @Nullable
+    private Constructor<?> getConstructor(Class<?> nmsType) {
+        Constructor<?> ct = constructor;
+        if (ct != null) return ct;
+
+        Class<?> clazz = ReflectionUtils.fromBukkit("inventory.CraftItemStack");
+        if (clazz == null) return null;
+
+        try {
+            ct = clazz.getDeclaredConstructor(nmsType);
+            ct.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+
+        return constructor = ct;
+    }
+}
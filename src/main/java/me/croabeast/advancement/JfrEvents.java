@@ -0,0 +1,39 @@
+package me.croabeast.advancement;
+
+import org.bukkit.advancement.Advancement;
+
+/**
+ * Baseline version of the Java Flight Recorder events, which records nothing.
+ * <p>
+ * The {@code jdk.jfr} API is not part of the Java 8 platform, so the recording version of this class is only
+ * packaged for Java 11 and newer. {@link Telemetry} never enables events while this version is loaded.
+ * </p>
+ *
+ * @see Telemetry
+ */
+final class JfrEvents {
+
+    private JfrEvents() {}
+
+    static boolean isRecording() {
+        return false;
+    }
+
+    static AdvancementInfo create(Advancement advancement, String strategy, Telemetry.Factory factory) throws Exception {
+        return factory.create(advancement);
+    }
+
+    static Object beginRefresh() {
+        return null;
+    }
+
+    static void endRefresh(Object object, int catalogVersion, int advancements, int failed, long savedBytes) {}
+
+    static Object beginWrap() {
+        return null;
+    }
+
+    static void endWrap(Object object, int length, int width, int lines) {}
+
+    static void cache(String cache, boolean hit) {}
+}
@@ -0,0 +1,183 @@
+package me.croabeast.advancement;
+
+import org.bukkit.NamespacedKey;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * A minimal perfect hash from the keys of an {@link AdvancementCatalog} to their ordinals.
+ * <p>
+ * Keys are hashed to 64 bits straight from their namespace and path, then spread over buckets; each bucket
+ * stores the displacement that sends all of its keys to free slots of a table exactly as large as the
+ * catalog (hash and displace). A lookup hashes the key once, reads one displacement and compares one key,
+ * without allocating and without boxing, and the whole index costs two small arrays and a key array.
+ * </p>
+ * <p>
+ * Keys whose full 64-bit hashes collide cannot be told apart by any displacement; they are kept in a small
+ * overflow map, which is empty in practice.
+ * </p>
+ */
+final class KeyIndex {
+
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private final int size, buckets;
+    private final int[] displacements;
+
+    private final NamespacedKey[] keys;
+    private final int[] ordinals;
+
+    @Nullable
+    private final Map<NamespacedKey, Integer> overflow;
+
+    /**
+     * Builds the index of the given keys, whose positions are their ordinals.
+     *
+     * @param source the keys, indexed by ordinal.
+     * @throws IllegalArgumentException if a key is repeated.
+     */
+    KeyIndex(NamespacedKey[] source) {
+        int count = source.length;
+        long[] hashes = new long[count];
+        for (int i = 0; i < count; i++) hashes[i] = hash(source[i]);
+
+        // keys sharing a full hash go to the overflow map, which also catches repeated keys
+        Map<NamespacedKey, Integer> extra = null;
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingLong(i -> hashes[i]));
+
+        boolean[] excluded = new boolean[count];
+        for (int i = 1; i < count; i++) {
+            int a = order[i - 1], b = order[i];
+            if (hashes[a] != hashes[b]) continue;
+
+            if (extra == null) extra = new HashMap<>();
+            for (int ordinal : new int[] {a, b}) {
+                Integer previous = extra.put(source[ordinal], ordinal);
+                if (previous != null && previous != ordinal)
+                    throw new IllegalArgumentException("Duplicated advancement " + source[ordinal]);
+                excluded[ordinal] = true;
+            }
+        }
+
+        size = count;
+        buckets = Math.max(1, count / 4);
+        displacements = new int[buckets];
+        keys = new NamespacedKey[count];
+        ordinals = new int[count];
+
+        List<List<Integer>> lists = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) lists.add(new ArrayList<>(4));
+        for (int i = 0; i < count; i++)
+            if (!excluded[i]) lists.get(bucket(hashes[i])).add(i);
+
+        // the largest buckets are placed first, while the table is still mostly empty
+        Integer[] sorted = new Integer[buckets];
+        for (int i = 0; i < buckets; i++) sorted[i] = i;
+        Arrays.sort(sorted, (a, b) -> lists.get(b).size() - lists.get(a).size());
+
+        boolean[] used = new boolean[count];
+        int[] slots = new int[8];
+
+        for (int bucket : sorted) {
+            List<Integer> members = lists.get(bucket);
+            if (members.isEmpty()) break;
+
+            int displacement = place(members, hashes, used, slots);
+            if (displacement < 0) {
+                // practically unreachable with 64-bit hashes, but never worth failing a catalog for
+                if (extra == null) extra = new HashMap<>();
+                for (int ordinal : members) extra.put(source[ordinal], ordinal);
+                continue;
+            }
+
+            displacements[bucket] = displacement;
+            for (int i = 0; i < members.size(); i++) {
+                int ordinal = members.get(i), slot = slot(hashes[ordinal], displacement);
+                used[slot] = true;
+                keys[slot] = source[ordinal];
+                ordinals[slot] = ordinal;
+            }
+        }
+
+        overflow = extra;
+    }
+
+    private int place(List<Integer> members, long[] hashes, boolean[] used, int[] slots) {
+        if (slots.length < members.size()) slots = new int[members.size()];
+        int limit = Math.max(size, 1024) * 64;
+
+        search:
+        for (int displacement = 0; displacement < limit; displacement++) {
+            for (int i = 0; i < members.size(); i++) {
+                int slot = slot(hashes[members.get(i)], displacement);
+                if (used[slot]) continue search;
+
+                for (int j = 0; j < i; j++)
+                    if (slots[j] == slot) continue search;
+                slots[i] = slot;
+            }
+            return displacement;
+        }
+
+        return -1;
+    }
+
+    private int bucket(long hash) {
+        return (int) ((hash >>> 33) % buckets);
+    }
+
+    private int slot(long hash, int displacement) {
+        return (int) ((mix(hash + displacement * SEED) >>> 1) % size);
+    }
+
+    /**
+     * Returns the ordinal of the given key.
+     *
+     * @param key the key, may be {@code null}.
+     * @return the ordinal, or {@code -1} if the key is not indexed.
+     */
+    int get(@Nullable NamespacedKey key) {
+        if (key == null || size == 0) return -1;
+
+        if (overflow != null) {
+            Integer ordinal = overflow.get(key);
+            if (ordinal != null) return ordinal;
+        }
+
+        long hash = hash(key);
+        int slot = slot(hash, displacements[bucket(hash)]);
+
+        NamespacedKey found = keys[slot];
+        return found != null && found.equals(key) ? ordinals[slot] : -1;
+    }
+
+    /**
+     * Hashes a key to 64 bits from its namespace and path, without building its string form.
+     */
+    static long hash(NamespacedKey key) {
+        long hash = 0xcbf29ce484222325L;
+
+        String namespace = key.getNamespace();
+        for (int i = 0; i < namespace.length(); i++)
+            hash = (hash ^ namespace.charAt(i)) * 0x100000001b3L;
+
+        hash = (hash ^ ':') * 0x100000001b3L;
+
+        String path = key.getKey();
+        for (int i = 0; i < path.length(); i++)
+            hash = (hash ^ path.charAt(i)) * 0x100000001b3L;
+
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        return value ^ value >>> 33;
+    }
+}
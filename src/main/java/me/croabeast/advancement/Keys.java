@@ -0,0 +1,36 @@
+package me.croabeast.advancement;
+
+import lombok.experimental.UtilityClass;
+import org.bukkit.NamespacedKey;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Utility class that parses advancement keys on every supported server version.
+ * <p>
+ * {@code NamespacedKey.fromString(String)} only exists since Bukkit 1.16.5, so keys read from files and
+ * payloads are parsed here instead, with the constructor every version has.
+ * </p>
+ */
+@UtilityClass
+class Keys {
+
+    /**
+     * Parses a key in the {@code namespace:key} form; keys without a namespace belong to {@code minecraft}.
+     *
+     * @param text the key to parse.
+     * @return the key, or {@code null} if the text is {@code null} or not a valid key.
+     */
+    @Nullable
+    NamespacedKey parse(@Nullable String text) {
+        if (text == null || text.isEmpty()) return null;
+
+        int index = text.indexOf(':');
+        try {
+            return index < 0 ?
+                    new NamespacedKey(NamespacedKey.MINECRAFT, text) :
+                    new NamespacedKey(text.substring(0, index), text.substring(index + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,562 @@
+package me.croabeast.advancement;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Bukkit;
+import org.bukkit.NamespacedKey;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerAdvancementDoneEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * A persistent index of the advancements completed by every player, used to rank players without reading
+ * their advancement files.
+ * <p>
+ * The index keeps one completion bitset per player, indexed by the ordinals of an {@link AdvancementCatalog},
+ * and mirrors it to a file of fixed-size records. Once {@link #register(Plugin) registered}, completions are
+ * recorded as they happen and only the records of the affected players are rewritten, in place, in the
+ * background. The player advancement files are only read when the index file is missing or was written
+ * for a different catalog.
+ * </p>
+ * <p>
+ * Rankings can be computed over every advancement, a single tab or a single frame type, see {@link Scope}.
+ * All the methods of this class are thread-safe.
+ * </p>
+ */
+public final class LeaderboardIndex implements Listener, Closeable {
+
+    private static final int MAGIC = 0x41494C42, FORMAT = 1, HEADER = 24;
+
+    /**
+     * The catalog whose ordinals index the completion bitsets.
+     */
+    @Getter
+    private final AdvancementCatalog catalog;
+
+    /**
+     * The file this index is persisted to.
+     */
+    @Getter
+    private final Path file;
+
+    private final int words, recordSize;
+
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private UUID[] owners = new UUID[16];
+    private long[] bits;
+    private int players = 0;
+
+    private final Map<Scope, long[]> masks = new ConcurrentHashMap<>();
+
+    private final BitSet dirty = new BitSet();
+    private boolean flushing = false;
+
+    /**
+     * Guards the file, a lock rather than a monitor, so a write blocked on the disk never pins the carrier
+     * of a virtual thread.
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private FileChannel channel = null;
+
+    private LeaderboardIndex(AdvancementCatalog catalog, Path file) {
+        this.catalog = catalog;
+        this.file = file;
+
+        words = (catalog.size() + 63) >>> 6;
+        recordSize = 16 + words * 8;
+        bits = new long[owners.length * words];
+    }
+
+    private int slot(UUID uuid) {
+        Integer slot = slots.get(uuid);
+        if (slot != null) return slot;
+
+        if (players == owners.length) {
+            owners = Arrays.copyOf(owners, players * 2);
+            bits = Arrays.copyOf(bits, owners.length * words);
+        }
+
+        owners[players] = uuid;
+        slots.put(uuid, players);
+        return players++;
+    }
+
+    private boolean load() throws IOException {
+        if (!Files.isRegularFile(file)) return false;
+
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = in.size();
+            if (length < HEADER) return false;
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(length, Integer.MAX_VALUE));
+            while (buffer.hasRemaining() && in.read(buffer) >= 0);
+            buffer.flip();
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT ||
+                    buffer.getLong() != catalog.getFingerprint() ||
+                    buffer.getInt() != catalog.size() || buffer.getInt() != words)
+                return false;
+
+            // a trailing partial record can only come from an interrupted write, so it is dropped
+            while (buffer.remaining() >= recordSize) {
+                int slot = slot(new UUID(buffer.getLong(), buffer.getLong()));
+                for (int i = 0; i < words; i++) bits[slot * words + i] = buffer.getLong();
+            }
+        }
+
+        return true;
+    }
+
+    private void rebuild(Path directory) throws IOException {
+        List<Path> files = PlayerAdvancementFile.list(directory);
+
+        Map<String, Integer> ordinals = new HashMap<>(catalog.size() * 4 / 3 + 1);
+        for (int i = 0; i < catalog.size(); i++)
+            ordinals.put(catalog.get(i).getKey().toString(), i);
+
+        List<Map.Entry<UUID, long[]>> rows = files.parallelStream().map(path -> {
+            UUID owner = PlayerAdvancementFile.getOwner(path);
+            if (owner == null) return null;
+
+            long[] row = new long[words];
+            try {
+                PlayerAdvancementFile.readCompleted(path, key -> {
+                    Integer ordinal = ordinals.get(key);
+                    if (ordinal != null) row[ordinal >>> 6] |= 1L << ordinal;
+                });
+            } catch (Exception e) {
+                return null;
+            }
+
+            return new AbstractMap.SimpleImmutableEntry<>(owner, row);
+        }).filter(Objects::nonNull).collect(Collectors.toList());
+
+        for (Map.Entry<UUID, long[]> row : rows)
+            System.arraycopy(row.getValue(), 0, bits, slot(row.getKey()) * words, words);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + players * recordSize);
+        buffer.putInt(MAGIC).putInt(FORMAT).putLong(catalog.getFingerprint())
+                .putInt(catalog.size()).putInt(words);
+
+        for (int slot = 0; slot < players; slot++) putRecord(buffer, slot);
+        buffer.flip();
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) out.write(buffer);
+            out.force(true);
+        }
+
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void putRecord(ByteBuffer buffer, int slot) {
+        UUID owner = owners[slot];
+        buffer.putLong(owner.getMostSignificantBits()).putLong(owner.getLeastSignificantBits());
+        for (int i = 0; i < words; i++) buffer.putLong(bits[slot * words + i]);
+    }
+
+    /**
+     * Registers this index as a listener of advancement completions, so they are recorded as they happen.
+     *
+     * @param plugin the plugin that owns the listener.
+     * @return this index.
+     */
+    @NotNull
+    public LeaderboardIndex register(@NotNull Plugin plugin) {
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+        return this;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onCompletion(PlayerAdvancementDoneEvent event) {
+        record(event.getPlayer().getUniqueId(), event.getAdvancement().getKey());
+    }
+
+    /**
+     * Records that the given player completed the given advancement.
+     *
+     * @param uuid the unique id of the player.
+     * @param key  the key of the completed advancement.
+     * @return {@code true} if the completion was not recorded yet; {@code false} if it was already recorded or
+     * the advancement is not in the catalog of this index.
+     */
+    public boolean record(@NotNull UUID uuid, @NotNull NamespacedKey key) {
+        int ordinal = catalog.getOrdinal(key);
+        return ordinal >= 0 && record(uuid, ordinal);
+    }
+
+    /**
+     * Records that the given player completed the advancement with the given ordinal.
+     *
+     * @param uuid    the unique id of the player.
+     * @param ordinal the catalog ordinal of the completed advancement.
+     * @return {@code true} if the completion was not recorded yet.
+     * @throws IndexOutOfBoundsException if the ordinal is out of range.
+     */
+    public synchronized boolean record(@NotNull UUID uuid, int ordinal) {
+        if (ordinal < 0 || ordinal >= catalog.size())
+            throw new IndexOutOfBoundsException("Ordinal " + ordinal + " out of " + catalog.size());
+
+        int slot = slot(uuid), index = slot * words + (ordinal >>> 6);
+        long word = bits[index];
+        if ((word & 1L << ordinal) != 0) return false;
+
+        bits[index] = word | 1L << ordinal;
+        dirty.set(slot);
+
+        if (!flushing && channel != null) {
+            flushing = true;
+            Platform.ioExecutor().execute(this::flush);
+        }
+        return true;
+    }
+
+    /**
+     * Writes the records of the players whose completions changed since the last write.
+     */
+    private void flush() {
+        ByteBuffer buffer = ByteBuffer.allocate(recordSize);
+
+        writeLock.lock();
+        try {
+            while (true) {
+                int slot;
+                synchronized (this) {
+                    slot = dirty.nextSetBit(0);
+                    if (slot < 0 || channel == null) {
+                        flushing = false;
+                        return;
+                    }
+
+                    dirty.clear(slot);
+                    buffer.clear();
+                    putRecord(buffer, slot);
+                    buffer.flip();
+                }
+
+                try {
+                    long position = HEADER + (long) slot * recordSize;
+                    while (buffer.hasRemaining()) position += channel.write(buffer, position);
+                } catch (IOException e) {
+                    Bukkit.getLogger().warning("[AdvancementInfo] Could not update " + file + ": " + e);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of players in this index.
+     *
+     * @return the number of indexed players.
+     */
+    public synchronized int getPlayers() {
+        return players;
+    }
+
+    /**
+     * Checks if the given player completed the advancement with the given ordinal.
+     *
+     * @param uuid    the unique id of the player.
+     * @param ordinal the catalog ordinal.
+     * @return {@code true} if the completion was recorded.
+     */
+    public synchronized boolean hasCompleted(@NotNull UUID uuid, int ordinal) {
+        Integer slot = slots.get(uuid);
+        return slot != null && ordinal >= 0 && ordinal < catalog.size() &&
+                (bits[slot * words + (ordinal >>> 6)] & 1L << ordinal) != 0;
+    }
+
+    /**
+     * Returns the number of advancements of the given scope completed by the given player.
+     *
+     * @param uuid  the unique id of the player.
+     * @param scope the advancements to count.
+     * @return the number of completions, {@code 0} for players not in this index.
+     */
+    public synchronized int getCompleted(@NotNull UUID uuid, @NotNull Scope scope) {
+        Integer slot = slots.get(uuid);
+        return slot == null ? 0 : count(slot, mask(scope));
+    }
+
+    /**
+     * Returns the rank of the given player in the given scope.
+     * <p>
+     * Players with the same number of completions share the same rank, so the rank is one plus the number of
+     * players with more completions.
+     * </p>
+     *
+     * @param uuid  the unique id of the player.
+     * @param scope the advancements to count.
+     * @return the rank, starting at {@code 1}, or {@code -1} for players not in this index.
+     */
+    public synchronized int getRank(@NotNull UUID uuid, @NotNull Scope scope) {
+        Integer slot = slots.get(uuid);
+        if (slot == null) return -1;
+
+        long[] mask = mask(scope);
+        int completed = count(slot, mask), rank = 1;
+
+        for (int i = 0; i < players; i++)
+            if (count(i, mask) > completed) rank++;
+
+        return rank;
+    }
+
+    /**
+     * Returns the players with the most completions in the given scope, best first.
+     * <p>
+     * Players with the same number of completions share the same rank and are ordered by unique id.
+     * </p>
+     *
+     * @param limit the maximum number of entries.
+     * @param scope the advancements to count.
+     * @return the top entries, at most {@code limit}.
+     */
+    @NotNull
+    public synchronized List<Entry> getTop(int limit, @NotNull Scope scope) {
+        if (limit <= 0 || players == 0) return new ArrayList<>();
+
+        long[] mask = mask(scope);
+        int[] counts = new int[players];
+        for (int i = 0; i < players; i++) counts[i] = count(i, mask);
+
+        Comparator<Integer> order = (a, b) -> counts[a] != counts[b] ?
+                Integer.compare(counts[b], counts[a]) :
+                owners[a].compareTo(owners[b]);
+
+        // bounded heap holding the current best slots, worst on top
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.min(limit, players) + 1, order.reversed());
+        for (int i = 0; i < players; i++) {
+            heap.add(i);
+            if (heap.size() > limit) heap.poll();
+        }
+
+        List<Integer> best = new ArrayList<>(heap);
+        best.sort(order);
+
+        List<Entry> top = new ArrayList<>(best.size());
+        int rank = 0, previous = -1;
+
+        for (int i = 0; i < best.size(); i++) {
+            int slot = best.get(i);
+            if (counts[slot] != previous) rank = i + 1;
+
+            previous = counts[slot];
+            top.add(new Entry(owners[slot], previous, rank));
+        }
+
+        return top;
+    }
+
+    private int count(int slot, long[] mask) {
+        int count = 0, offset = slot * words;
+        for (int i = 0; i < words; i++)
+            count += Long.bitCount(bits[offset + i] & mask[i]);
+        return count;
+    }
+
+    private long[] mask(Scope scope) {
+        return masks.computeIfAbsent(scope, s -> {
+            long[] mask = new long[words];
+            for (int i = 0; i < catalog.size(); i++)
+                if (s.contains(catalog, i)) mask[i >>> 6] |= 1L << i;
+            return mask;
+        });
+    }
+
+    /**
+     * Stops recording completions, writes any pending change and closes the index file.
+     *
+     * @throws IOException if the index file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        HandlerList.unregisterAll(this);
+
+        synchronized (this) {
+            if (channel == null) return;
+            flushing = true;
+        }
+
+        flush();
+
+        writeLock.lock();
+        try {
+            FileChannel current;
+            synchronized (this) {
+                current = channel;
+                channel = null;
+            }
+            current.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "LeaderboardIndex{file=" + file + ", catalog=" + catalog.getVersion() + ", players=" + players + '}';
+    }
+
+    /**
+     * Opens the index of the main world, stored in the given file.
+     * <p>
+     * This method must be called on the main server thread; the index is loaded asynchronously.
+     * </p>
+     *
+     * @param file    the index file.
+     * @param catalog the catalog whose ordinals index the completions.
+     * @return a future completed with the index.
+     * @see #open(Path, Path, AdvancementCatalog)
+     */
+    @NotNull
+    public static CompletableFuture<LeaderboardIndex> open(@NotNull Path file, @NotNull AdvancementCatalog catalog) {
+        Path world = Bukkit.getWorlds().get(0).getWorldFolder().toPath();
+        return open(file, world.resolve("advancements"), catalog);
+    }
+
+    /**
+     * Opens the index stored in the given file, rebuilding it from the given player advancement files if the
+     * index file is missing, unreadable or was written for a catalog with a different
+     * {@link AdvancementCatalog#getFingerprint() fingerprint}.
+     *
+     * @param file      the index file.
+     * @param directory the directory holding the {@code <uuid>.json} player files.
+     * @param catalog   the catalog whose ordinals index the completions.
+     * @return a future completed with the index, ready to be {@link #register(Plugin) registered}.
+     */
+    @NotNull
+    public static CompletableFuture<LeaderboardIndex> open(@NotNull Path file, @NotNull Path directory, @NotNull AdvancementCatalog catalog) {
+        return Workers.supply(() -> {
+            LeaderboardIndex index = new LeaderboardIndex(catalog, file);
+            try {
+                if (!index.load()) {
+                    index.slots.clear();
+                    index.players = 0;
+                    index.rebuild(directory);
+                }
+
+                index.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return index;
+        });
+    }
+
+    /**
+     * An entry of a ranking.
+     */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+    public static final class Entry {
+
+        /**
+         * The unique id of the player.
+         */
+        private final UUID uniqueId;
+
+        /**
+         * The number of completed advancements in the ranked scope.
+         */
+        private final int completed;
+
+        /**
+         * The rank of the player, starting at {@code 1}.
+         */
+        private final int rank;
+
+        @Override
+        public String toString() {
+            return "Entry{" + rank + ": " + uniqueId + ", completed=" + completed + '}';
+        }
+    }
+
+    /**
+     * The set of advancements a ranking counts.
+     */
+    @EqualsAndHashCode
+    public static final class Scope {
+
+        /**
+         * Every advancement shown in the advancements screen, so recipe unlocks and other advancements without
+         * a frame are not counted.
+         */
+        public static final Scope ALL = new Scope(null, null);
+
+        @Nullable
+        private final NamespacedKey root;
+        @Nullable
+        private final AdvancementInfo.Frame frame;
+
+        private Scope(@Nullable NamespacedKey root, @Nullable AdvancementInfo.Frame frame) {
+            this.root = root;
+            this.frame = frame;
+        }
+
+        /**
+         * Returns the scope of the advancements in the tab of the given root advancement.
+         *
+         * @param root the key of the root advancement of the tab, such as {@code minecraft:story/root}.
+         * @return the tab scope.
+         */
+        @NotNull
+        public static Scope tab(@NotNull NamespacedKey root) {
+            return new Scope(Objects.requireNonNull(root), null);
+        }
+
+        /**
+         * Returns the scope of the advancements with the given frame type.
+         *
+         * @param frame the frame type.
+         * @return the frame scope.
+         */
+        @NotNull
+        public static Scope frame(@NotNull AdvancementInfo.Frame frame) {
+            return new Scope(null, Objects.requireNonNull(frame));
+        }
+
+        boolean contains(AdvancementCatalog catalog, int ordinal) {
+            AdvancementInfo info = catalog.get(ordinal);
+            if (frame != null) return info.getFrame() == frame;
+
+            if (info.getFrame() == AdvancementInfo.Frame.UNKNOWN) return false;
+            return root == null || catalog.getTree().getRoot(ordinal) == catalog.getOrdinal(root);
+        }
+
+        @Override
+        public String toString() {
+            return root != null ? "Scope{tab=" + root + '}' : frame != null ? "Scope{frame=" + frame + '}' : "Scope{all}";
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package me.croabeast.advancement;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Bukkit;
+import org.bukkit.advancement.Advancement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Data-driven table of the internal advancement members accessed through reflection.
+ * <p>
+ * The field lookups are loaded from the bundled {@value #RESOURCE} resource, where each accessor is keyed by
+ * the first {@link ServerVersion} it applies to. Every accessor required by the running server version is
+ * resolved and validated once, when the table is first requested, and any accessor that cannot be found is
+ * reported as a single diagnostic.
+ * </p>
+ * <p>
+ * Implementations then read values through the resolved {@link Entry entries}, so missing members are known
+ * up front instead of surfacing as a {@link NullPointerException} on every advancement.
+ * </p>
+ *
+ * @see ServerVersion
+ */
+final class Mappings {
+
+    /**
+     * The name of the bundled mapping resource.
+     */
+    static final String RESOURCE = "advancement-mappings.properties";
+
+    private static Mappings instance = null;
+
+    /**
+     * The server version the accessors were resolved for.
+     */
+    @Getter
+    private final ServerVersion version;
+
+    private final List<String> missing = new ArrayList<>();
+
+    private final Accessor[] accessors = new Accessor[Entry.values().length];
+    private Method handleMethod = null;
+
+    /**
+     * Every accessor declared in the mapping resource, grouped by the class that owns it.
+     */
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    enum Entry {
+        HOLDER_ADVANCEMENT(Owner.HOLDER, "holder.advancement"),
+
+        ADVANCEMENT_DISPLAY(Owner.ADVANCEMENT, "advancement.display"),
+        ADVANCEMENT_REWARDS(Owner.ADVANCEMENT, "advancement.rewards"),
+        ADVANCEMENT_CRITERIA(Owner.ADVANCEMENT, "advancement.criteria"),
+        ADVANCEMENT_REQUIREMENTS(Owner.ADVANCEMENT, "advancement.requirements"),
+        ADVANCEMENT_PARENT(Owner.ADVANCEMENT, "advancement.parent"),
+        ADVANCEMENT_KEY(Owner.ADVANCEMENT, "advancement.key"),
+
+        REQUIREMENTS_LIST(Owner.REQUIREMENTS, "requirements.list"),
+
+        DISPLAY_TITLE(Owner.DISPLAY, "display.title"),
+        DISPLAY_DESCRIPTION(Owner.DISPLAY, "display.description"),
+        DISPLAY_ICON(Owner.DISPLAY, "display.icon"),
+        DISPLAY_FRAME(Owner.DISPLAY, "display.frame"),
+        DISPLAY_SHOW_TOAST(Owner.DISPLAY, "display.show_toast"),
+        DISPLAY_ANNOUNCE_CHAT(Owner.DISPLAY, "display.announce_chat"),
+        DISPLAY_HIDDEN(Owner.DISPLAY, "display.hidden"),
+        DISPLAY_X(Owner.DISPLAY, "display.x"),
+        DISPLAY_Y(Owner.DISPLAY, "display.y");
+
+        private final Owner owner;
+        private final String path;
+    }
+
+    private enum Owner {
+        HOLDER, ADVANCEMENT, REQUIREMENTS, DISPLAY
+    }
+
+    /**
+     * A resolved field, unwrapping {@link Optional} values when the mapping declares it.
+     */
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class Accessor {
+
+        private final Field field;
+        private final Class<?> type;
+        private final boolean optional;
+
+        private Function<Object, Object> getter = null;
+
+        private Object get(Object parent) {
+            Object value = getter.apply(parent);
+            return optional && value != null ? ((Optional<?>) value).orElse(null) : value;
+        }
+    }
+
+    private Mappings(ServerVersion version) {
+        this.version = version;
+
+        Properties table = new Properties();
+        try (InputStream stream = Mappings.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (stream == null) throw new IllegalStateException("Missing " + RESOURCE);
+            table.load(stream);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+
+        Map<Entry, String> specs = new EnumMap<>(Entry.class);
+        for (Entry entry : Entry.values())
+            specs.put(entry, select(table, entry.path));
+
+        Class<?> craft = ReflectionUtils.fromBukkit("advancement.CraftAdvancement");
+        try {
+            handleMethod = Objects.requireNonNull(craft).getMethod("getHandle");
+        } catch (Exception e) {
+            missing.add("CraftAdvancement#getHandle");
+            return;
+        }
+
+        Class<?> holder = handleMethod.getReturnType();
+        Class<?> advancement = holder;
+
+        if (!"none".equals(specs.get(Entry.HOLDER_ADVANCEMENT)))
+            advancement = resolve(Entry.HOLDER_ADVANCEMENT, specs, holder);
+
+        resolveAll(Owner.ADVANCEMENT, specs, advancement);
+
+        Class<?> requirements = type(Entry.ADVANCEMENT_REQUIREMENTS);
+        if (requirements != null && requirements != String[][].class)
+            resolveAll(Owner.REQUIREMENTS, specs, requirements);
+
+        resolveAll(Owner.DISPLAY, specs, type(Entry.ADVANCEMENT_DISPLAY));
+    }
+
+    /**
+     * Selects the specification of the given accessor that applies to the running version.
+     */
+    private String select(Properties table, String path) {
+        String spec = table.getProperty(path);
+        ServerVersion best = null;
+
+        for (String key : table.stringPropertyNames()) {
+            if (!key.startsWith(path + '@')) continue;
+
+            ServerVersion since = ServerVersion.parse(key.substring(path.length() + 1));
+            if (version.compareTo(since) < 0 || (best != null && best.compareTo(since) > 0))
+                continue;
+
+            best = since;
+            spec = table.getProperty(key);
+        }
+
+        return spec == null ? "none" : spec.trim();
+    }
+
+    private void resolveAll(Owner owner, Map<Entry, String> specs, Class<?> type) {
+        for (Entry entry : Entry.values())
+            if (entry.owner == owner) resolve(entry, specs, type);
+    }
+
+    @Nullable
+    private Class<?> resolve(Entry entry, Map<Entry, String> specs, Class<?> owner) {
+        String spec = specs.get(entry);
+        if ("none".equals(spec)) return null;
+
+        Accessor accessor = owner == null ? null : find(owner, spec);
+        if (accessor == null) {
+            missing.add(entry.path + " (" + spec + ')');
+            return null;
+        }
+
+        accessor.field.setAccessible(true);
+        accessor.getter = Platform.getter(accessor.field);
+        accessors[entry.ordinal()] = accessor;
+        return accessor.type;
+    }
+
+    @Nullable
+    private static Accessor find(Class<?> owner, String spec) {
+        int index = spec.indexOf(':');
+        String kind = index < 0 ? spec : spec.substring(0, index);
+        String[] values = index < 0 ? new String[0] : spec.substring(index + 1).split("\\|");
+
+        for (Field field : owner.getDeclaredFields()) {
+            Class<?> type = field.getType();
+
+            switch (kind) {
+                case "name":
+                    if (field.getName().equals(values[0]))
+                        return new Accessor(field, type, false);
+                    break;
+
+                case "type":
+                    if (matches(type, values))
+                        return new Accessor(field, type, false);
+                    break;
+
+                case "optional":
+                    if (type != Optional.class) break;
+
+                    Type generic = field.getGenericType();
+                    if (!(generic instanceof ParameterizedType)) break;
+
+                    Type argument = ((ParameterizedType) generic).getActualTypeArguments()[0];
+                    if (argument instanceof Class<?> && matches((Class<?>) argument, values))
+                        return new Accessor(field, (Class<?>) argument, true);
+                    break;
+
+                case "self":
+                    if (type == owner)
+                        return new Accessor(field, type, false);
+                    break;
+
+                default:
+                    return null;
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean matches(Class<?> type, String[] names) {
+        String simple = type.getSimpleName();
+        for (String name : names)
+            if (simple.contains(name)) return true;
+        return false;
+    }
+
+    @Nullable
+    private Class<?> type(Entry entry) {
+        Accessor accessor = accessors[entry.ordinal()];
+        return accessor == null ? null : accessor.type;
+    }
+
+    /**
+     * Returns the names of every required accessor that could not be resolved.
+     *
+     * @return an unmodifiable list of missing accessors, empty if all of them were resolved.
+     */
+    @NotNull
+    List<String> getMissing() {
+        return Collections.unmodifiableList(missing);
+    }
+
+    /**
+     * Checks if the given accessor was resolved for the running version.
+     *
+     * @param entry the accessor.
+     * @return {@code true} if the accessor can be read; {@code false} if it is missing or not applicable.
+     */
+    boolean has(Entry entry) {
+        return accessors[entry.ordinal()] != null;
+    }
+
+    /**
+     * Ensures that every given accessor was resolved.
+     *
+     * @param entries the required accessors.
+     * @throws IllegalStateException if any of the accessors is missing.
+     */
+    void require(Entry... entries) {
+        List<String> absent = null;
+
+        for (Entry entry : entries) {
+            if (has(entry)) continue;
+            if (absent == null) absent = new ArrayList<>();
+            absent.add(entry.path);
+        }
+
+        if (absent != null)
+            throw new IllegalStateException("Missing accessors for " + version + ": " + absent);
+    }
+
+    /**
+     * Reads the value of the given accessor from its owner object.
+     *
+     * @param entry  the accessor.
+     * @param parent the object that owns the field.
+     * @param <T>    the type of the value.
+     * @return the value, or {@code null} if the accessor is not resolved or the value is absent.
+     * @throws IllegalStateException if the field cannot be read.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    <T> T get(Entry entry, Object parent) {
+        Accessor accessor = accessors[entry.ordinal()];
+        if (accessor == null || parent == null) return null;
+
+        try {
+            return (T) accessor.get(parent);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to read " + entry.path, e);
+        }
+    }
+
+    /**
+     * Retrieves the internal handle of the given Bukkit advancement.
+     *
+     * @param advancement the Bukkit advancement.
+     * @return the internal handle.
+     * @throws IllegalStateException if the handle cannot be retrieved.
+     */
+    @NotNull
+    Object getHandle(Advancement advancement) {
+        if (handleMethod == null)
+            throw new IllegalStateException("Missing CraftAdvancement#getHandle");
+
+        try {
+            return Objects.requireNonNull(handleMethod.invoke(advancement));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the mapping table for the running server, resolving and validating it on first use.
+     * <p>
+     * If any required accessor is missing, a single warning listing all of them is logged.
+     * </p>
+     *
+     * @return the resolved mapping table.
+     */
+    @NotNull
+    static synchronized Mappings get() {
+        if (instance != null) return instance;
+
+        instance = new Mappings(ServerVersion.current());
+        if (!instance.missing.isEmpty())
+            Bukkit.getLogger().warning("[AdvancementInfo] Missing advancement accessors for " +
+                    instance.version + ": " + String.join(", ", instance.missing));
+
+        return instance;
+    }
+}
@@ -0,0 +1,175 @@
+package me.croabeast.advancement;
+
+import lombok.experimental.UtilityClass;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Utility class that persists the {@link AdvancementCatalog#getStableId(int) stable ids} of refreshed catalogs,
+ * so they survive restarts and reloads.
+ * <p>
+ * The file stores every key ever assigned an id, in id order. Keys of removed advancements are kept as
+ * tombstones, so their ids are never handed out again and the ids of the remaining ones never change; new
+ * advancements get the next free ids, sorted by key. Ordinals, which are dense, follow the id order and
+ * therefore still shift down after a removal.
+ * </p>
+ */
+@UtilityClass
+class OrdinalFile {
+
+    private final int MAGIC = 0x41494F52, FORMAT = 2;
+
+    /**
+     * Serializes writes, a lock rather than a monitor, since writes run on the {@link Platform#ioExecutor()}
+     * and a monitor held across file I/O would pin the carrier of a virtual thread.
+     */
+    private final ReentrantLock LOCK = new ReentrantLock();
+
+    /**
+     * The id table of the last sort and the file it belongs to, so a refresh never reads a file whose
+     * background write is still pending. Only replaced by {@link AdvancementCatalog#refresh()}, which is
+     * synchronized.
+     */
+    private volatile Path loadedFile = null;
+    private List<String> loadedKeys = null;
+
+    /**
+     * The size of the last table written to the loaded file, or {@code -1} if it must be written. Tables only
+     * grow, so a failed write is retried by the next refresh.
+     */
+    private volatile int written = -1;
+
+    /**
+     * Sorts the given advancements by their stored id, assigning new ids to new advancements.
+     *
+     * @param file the id file, which may not exist.
+     * @param list the advancements to sort, in place.
+     * @return the ids of the sorted advancements, with the table to write if it changed.
+     */
+    @NotNull
+    Assignment sort(@NotNull Path file, @NotNull List<AdvancementInfo> list) {
+        if (!file.equals(loadedFile)) {
+            List<String> keys = new ArrayList<>();
+            written = read(file, keys) ? -1 : keys.size();
+
+            loadedKeys = keys;
+            loadedFile = file;
+        }
+
+        List<String> keys = loadedKeys;
+        Map<String, Integer> ids = new HashMap<>(keys.size() * 2);
+        for (int i = 0; i < keys.size(); i++) ids.put(keys.get(i), i);
+
+        List<String> added = new ArrayList<>();
+        for (AdvancementInfo info : list) {
+            String key = info.getKey().toString();
+            if (!ids.containsKey(key)) added.add(key);
+        }
+
+        if (!added.isEmpty()) {
+            Collections.sort(added);
+            keys = new ArrayList<>(keys);
+
+            for (String key : added) {
+                ids.put(key, keys.size());
+                keys.add(key);
+            }
+
+            loadedKeys = keys;
+        }
+
+        list.sort(Comparator.comparingInt(info -> ids.get(info.getKey().toString())));
+
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++) result[i] = ids.get(list.get(i).getKey().toString());
+
+        return new Assignment(result, keys.size() != written ? Collections.unmodifiableList(keys) : null);
+    }
+
+    /**
+     * Reads the id table of the given file, starting a new one if the file is missing or unreadable.
+     *
+     * @return {@code true} if the table must be written back.
+     */
+    private boolean read(Path file, List<String> keys) {
+        if (!Files.isRegularFile(file)) return true;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException("not an id file");
+
+            int format = in.readInt();
+            if (format != FORMAT) throw new IOException("unknown format " + format);
+
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) keys.add(in.readUTF());
+            return false;
+        } catch (IOException e) {
+            keys.clear();
+            Bukkit.getLogger().warning("[AdvancementInfo] Could not read " + file + ", ids are reassigned: " + e);
+            return true;
+        }
+    }
+
+    /**
+     * Writes the given id table, replacing the given file atomically.
+     *
+     * @param file the id file.
+     * @param keys every key ever assigned an id, in id order.
+     * @throws IOException if the file cannot be written.
+     */
+    void write(@NotNull Path file, @NotNull List<String> keys) throws IOException {
+        LOCK.lock();
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+
+                out.writeInt(keys.size());
+                for (String key : keys) out.writeUTF(key);
+            }
+
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            if (file.equals(loadedFile)) written = Math.max(written, keys.size());
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * The stable ids assigned by a {@link #sort(Path, List) sort}.
+     */
+    static final class Assignment {
+
+        /**
+         * The stable id of every sorted advancement, in ordinal order.
+         */
+        final int[] ids;
+
+        /**
+         * The id table to write, or {@code null} if the stored one is still current.
+         */
+        final List<String> table;
+
+        private Assignment(int[] ids, List<String> table) {
+            this.ids = ids;
+            this.table = table;
+        }
+    }
+}
@@ -18,7 +18,8 @@ import java.util.function.Supplier;
  * {@code PaperInfoImpl} extracts advancement display data using Paper-specific methods and the
  * {@link LegacyComponentSerializer} for converting legacy formatted text into plain text.
  * It retrieves the title, description, icon, toast and chat announcement settings, frame type,
- * and hidden state from the {@code AdvancementDisplay} object of a Bukkit {@link Advancement}.
+ * and hidden state from the {@code AdvancementDisplay} object of a Bukkit {@link Advancement}, and its coordinates
+ * from the internal display, which the Paper API does not expose.
  * </p>
  * <p>
  * This implementation uses reflection to invoke methods on the display object, and it wraps the advancement
@@ -43,10 +44,10 @@ final class PaperInfoImpl extends AdvancementImpl {
     private final String description;
 
     /**
-     * The icon representing the advancement.
+     * The shared icon representing the advancement.
      */
     @Nullable
-    private final ItemStack icon;
+    private final ItemStack sharedIcon;
 
     /**
      * Indicates whether a toast notification should be shown when the advancement is achieved.
@@ -70,6 +71,11 @@ final class PaperInfoImpl extends AdvancementImpl {
      */
     private final boolean hidden;
 
+    /**
+     * The coordinates of the advancement, read from the internal display, or {@code 0} if they cannot be read.
+     */
+    private final float x, y;
+
     /**
      * Constructs a new {@code PaperInfoImpl} by extracting display data from the provided advancement.
      * <p>
@@ -87,7 +93,7 @@ final class PaperInfoImpl extends AdvancementImpl {
         // Wrap the advancement retrieval inside a Supplier to ensure compatibility with Paper.
         super(((Supplier<Advancement>) () -> {
             try {
-                Class.forName(ReflectionUtils.MC_VS >= 12.0 ?
+                Class.forName(ServerVersion.current().isAtLeast(1, 12) ?
                         "com.destroystokyo.paper.ParticleBuilder" :
                         "io.papermc.paperclip.Paperclip");
             } catch (Exception e) {
@@ -109,8 +115,8 @@ final class PaperInfoImpl extends AdvancementImpl {
         title = deserialize(display, true);
         description = deserialize(display, false);
 
-        // Retrieve the icon from the display.
-        icon = getValue(display, "icon");
+        // Retrieve the shared icon from the display.
+        sharedIcon = IconCache.share(getValue(display, "icon"));
 
         // Retrieve display options: showToast, hidden, and announceChat.
         showToast = getValue(display, "doesShowToast");
@@ -120,6 +126,25 @@ final class PaperInfoImpl extends AdvancementImpl {
         // Retrieve and convert the frame type.
         final Object type = getValue(display, "frame");
         frame = Frame.fromName(type != null ? type.toString() : null);
+
+        // The Paper display does not expose the coordinates, so read them from the internal one.
+        float x = 0, y = 0;
+        try {
+            Mappings map = Mappings.get();
+            if (map.has(Mappings.Entry.DISPLAY_X) && map.has(Mappings.Entry.DISPLAY_Y)) {
+                Object internal = map.get(Mappings.Entry.ADVANCEMENT_DISPLAY, handle);
+                Float foundX = map.get(Mappings.Entry.DISPLAY_X, internal);
+                Float foundY = map.get(Mappings.Entry.DISPLAY_Y, internal);
+
+                if (foundX != null && foundY != null) {
+                    x = foundX;
+                    y = foundY;
+                }
+            }
+        } catch (Exception ignored) {}
+
+        this.x = x;
+        this.y = y;
     }
 
     /**
@@ -184,22 +209,4 @@ final class PaperInfoImpl extends AdvancementImpl {
         Advancement p = getParent();
         return "PaperAdvancementInfo{bukkit=" + getBukkit().getKey() + ", parent=" + (p == null ? null : p.getKey()) + '}';
     }
-
-    /**
-     * Note: The {@link #getX()} and {@link #getY()} methods are not overridden in this implementation and default to 0.
-     *
-     * @return 0.0 as the default x-coordinate.
-     */
-    public float getX() {
-        return 0;
-    }
-
-    /**
-     * Note: The {@link #getX()} and {@link #getY()} methods are not overridden in this implementation and default to 0.
-     *
-     * @return 0.0 as the default y-coordinate.
-     */
-    public float getY() {
-        return 0;
-    }
 }
@@ -0,0 +1,96 @@
+package me.croabeast.advancement;
+
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Utility class holding the operations that have faster implementations on newer Java versions.
+ * <p>
+ * The library is packaged as a multi-release JAR: this class is the Java 8 baseline, and the JAR also ships
+ * versions of it compiled from {@code src/main/java17} and {@code src/main/java21}, which the JVM picks up
+ * automatically on Java 17+ and 21+. Every version must keep the same package-private methods.
+ * </p>
+ */
+@UtilityClass
+class Platform {
+
+    /**
+     * Returns the Java feature version this implementation was compiled for.
+     * <p>
+     * This is a method rather than a constant, so callers are not compiled against the baseline value.
+     * </p>
+     *
+     * @return the feature version.
+     */
+    int getFeature() {
+        return 8;
+    }
+
+    /**
+     * Creates a getter for an accessible instance field.
+     *
+     * @param field the field, already made accessible.
+     * @return a function reading the field from its owner object.
+     */
+    @NotNull
+    Function<Object, Object> getter(Field field) {
+        return parent -> {
+            try {
+                return field.get(parent);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    /**
+     * Returns an unmodifiable copy of the given collection. Every version returns the same kind of list, which
+     * may hold {@code null} elements and be searched for them.
+     *
+     * @param collection the collection to copy.
+     * @param <T>        the type of the elements.
+     * @return an unmodifiable list.
+     */
+    @NotNull
+    <T> List<T> copyOf(Collection<? extends T> collection) {
+        return Collections.unmodifiableList(new ArrayList<>(collection));
+    }
+
+    /**
+     * Converts every element of the given list, keeping their order.
+     * <p>
+     * This version converts on the calling thread.
+     * </p>
+     *
+     * @param list      the elements to convert.
+     * @param converter the conversion, which may return {@code null}.
+     * @param <T>       the type of the elements.
+     * @param <R>       the type of the converted elements.
+     * @return a new list of the converted elements.
+     */
+    @NotNull
+    <T, R> List<R> convert(List<T> list, Function<? super T, ? extends R> converter) {
+        List<R> result = new ArrayList<>(list.size());
+        for (T element : list) result.add(converter.apply(element));
+        return result;
+    }
+
+    /**
+     * Returns the executor for tasks that mostly wait on files or listeners, such as index writes and
+     * catalog deliveries.
+     *
+     * @return the executor.
+     */
+    @NotNull
+    Executor ioExecutor() {
+        return Workers.pool();
+    }
+}
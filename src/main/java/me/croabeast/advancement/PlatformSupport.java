@@ -0,0 +1,68 @@
+package me.croabeast.advancement;
+
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class holding the {@link Platform} operations shared by the Java 17 and Java 21 versions.
+ * <p>
+ * Each release of the multi-release JAR is compiled against the baseline classes only, so the code both newer
+ * versions share lives here rather than in either of them. The baseline {@link Platform} does not use it.
+ * </p>
+ */
+@UtilityClass
+class PlatformSupport {
+
+    /**
+     * Creates a getter for an accessible instance field, through a method handle adapted to an exact
+     * {@code (Object) Object} type.
+     *
+     * @param field the field, already made accessible.
+     * @return a function reading the field from its owner object.
+     */
+    @NotNull
+    Function<Object, Object> getter(Field field) {
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.lookup().unreflectGetter(field)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return parent -> {
+            try {
+                return (Object) handle.invokeExact(parent);
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        };
+    }
+
+    /**
+     * Converts every element of the given list on the {@link Workers#pool() library pool}, keeping their order,
+     * and waits for it. The converter must be thread-safe.
+     *
+     * @param list      the elements to convert.
+     * @param converter the conversion, which may return {@code null}.
+     * @param <T>       the type of the elements.
+     * @param <R>       the type of the converted elements.
+     * @return a new list of the converted elements.
+     */
+    @NotNull
+    <T, R> List<R> convert(List<T> list, Function<? super T, ? extends R> converter) {
+        // collecting into an ArrayList, unlike toList(), keeps null results
+        return Workers.pool().submit(() -> list.parallelStream()
+                .map(converter)
+                .collect(Collectors.toCollection(() -> new ArrayList<R>(list.size())))).join();
+    }
+}
@@ -0,0 +1,112 @@
+package me.croabeast.advancement;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Utility class to read the per-player advancement files stored in {@code <world>/advancements/<uuid>.json}.
+ * <p>
+ * Files are read with a streaming JSON parser, so only the keys of completed advancements are materialized;
+ * criteria dates and any other value are skipped without building a JSON tree.
+ * </p>
+ */
+@UtilityClass
+class PlayerAdvancementFile {
+
+    /**
+     * Lists every player advancement file in the given directory.
+     *
+     * @param directory the advancements directory of a world.
+     * @return the player files, empty if the directory does not exist.
+     * @throws IOException if the directory cannot be listed.
+     */
+    @NotNull
+    List<Path> list(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) return files;
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.json")) {
+            for (Path path : stream) files.add(path);
+        }
+        return files;
+    }
+
+    /**
+     * Returns the unique id of the player that owns the given file.
+     *
+     * @param file the player advancement file.
+     * @return the player's unique id, or {@code null} if the file name is not a unique id.
+     */
+    @Nullable
+    UUID getOwner(Path file) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(".json")) name = name.substring(0, name.length() - 5);
+
+        try {
+            return UUID.fromString(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the keys of every advancement marked as done in the given player file.
+     *
+     * @param file     the player advancement file.
+     * @param consumer the consumer of completed advancement keys, such as {@code minecraft:story/root}.
+     * @throws IOException if the file cannot be read or is malformed.
+     */
+    void readCompleted(Path file, Consumer<String> consumer) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            readCompleted(reader, consumer);
+        }
+    }
+
+    /**
+     * Reads the keys of every advancement marked as done from the given reader.
+     *
+     * @param reader   the reader of a player advancement file.
+     * @param consumer the consumer of completed advancement keys.
+     * @throws IOException if the content cannot be read or is malformed.
+     */
+    void readCompleted(Reader reader, Consumer<String> consumer) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        json.beginObject();
+
+        while (json.hasNext()) {
+            String key = json.nextName();
+            if (json.peek() != JsonToken.BEGIN_OBJECT) {
+                json.skipValue();
+                continue;
+            }
+
+            boolean done = false;
+            json.beginObject();
+
+            while (json.hasNext()) {
+                if ("done".equals(json.nextName()) && json.peek() == JsonToken.BOOLEAN)
+                    done = json.nextBoolean();
+                else json.skipValue();
+            }
+
+            json.endObject();
+            if (done) consumer.accept(key);
+        }
+
+        json.endObject();
+    }
+}
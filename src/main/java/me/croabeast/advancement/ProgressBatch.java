@@ -0,0 +1,272 @@
+package me.croabeast.advancement;
+
+import lombok.Getter;
+import org.bukkit.NamespacedKey;
+import org.bukkit.advancement.Advancement;
+import org.bukkit.advancement.AdvancementProgress;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * A reusable buffer holding the progress of a player on many advancements, filled in a single pass.
+ * <p>
+ * Each fill resolves the advancements from an {@link AdvancementCatalog} and stores, per advancement, the info,
+ * its ordinal, the number of awarded and remaining criteria, and the completion time. The buffer keeps its
+ * arrays between fills, so once it is large enough the only allocations left are the collections the server
+ * returns for the awarded criteria, which are queried once per advancement.
+ * </p>
+ * <p>
+ * Fills read the progress of the player, so they must run on the main server thread. A batch is not thread-safe.
+ * </p>
+ */
+public final class ProgressBatch {
+
+    /**
+     * The catalog of the last fill, or {@code null} if the batch was never filled.
+     */
+    @Getter
+    @Nullable
+    private AdvancementCatalog catalog = null;
+
+    /**
+     * The number of advancements of the last fill.
+     */
+    private int size = 0;
+
+    private AdvancementInfo[] infos;
+    private int[] ordinals, awarded, remaining;
+    private long[] completed;
+
+    /**
+     * Creates a batch with room for the given number of advancements; it grows as needed.
+     *
+     * @param capacity the initial capacity.
+     */
+    public ProgressBatch(int capacity) {
+        capacity = Math.max(capacity, 16);
+
+        infos = new AdvancementInfo[capacity];
+        ordinals = new int[capacity];
+        awarded = new int[capacity];
+        remaining = new int[capacity];
+        completed = new long[capacity];
+    }
+
+    /**
+     * Creates a batch with a default capacity.
+     */
+    public ProgressBatch() {
+        this(128);
+    }
+
+    private void start(AdvancementCatalog catalog, int expected) {
+        Arrays.fill(infos, 0, size, null);
+        this.catalog = catalog;
+        size = 0;
+
+        if (expected <= infos.length) return;
+
+        int capacity = Math.max(expected, infos.length * 2);
+        infos = new AdvancementInfo[capacity];
+        ordinals = new int[capacity];
+        awarded = new int[capacity];
+        remaining = new int[capacity];
+        completed = new long[capacity];
+    }
+
+    private void add(Player player, int ordinal) {
+        AdvancementInfo info = catalog.get(ordinal);
+        int awarded = 0, remaining = 0;
+        long completed = -1;
+
+        Advancement advancement = null;
+        try {
+            advancement = info.getBukkit();
+        } catch (IllegalStateException ignored) {}
+
+        if (advancement != null) {
+            AdvancementProgress progress = player.getAdvancementProgress(advancement);
+
+            // the server copies the criteria on every query, so the remaining ones are counted from the info
+            Collection<String> criteria = progress.getAwardedCriteria();
+            awarded = criteria.size();
+            remaining = Math.max(0, info.getCriteria().size() - awarded);
+
+            if (progress.isDone()) {
+                completed = 0;
+                for (String criterion : criteria) {
+                    Date date = progress.getDateAwarded(criterion);
+                    if (date != null) completed = Math.max(completed, date.getTime());
+                }
+            }
+        }
+
+        infos[size] = info;
+        ordinals[size] = ordinal;
+        this.awarded[size] = awarded;
+        this.remaining[size] = remaining;
+        this.completed[size] = completed;
+        size++;
+    }
+
+    /**
+     * Fills this batch with the progress of the given player on the given advancements, in the given order.
+     * Keys that are not in the catalog are skipped.
+     *
+     * @param player  the player.
+     * @param catalog the catalog to resolve the keys from.
+     * @param keys    the keys of the advancements.
+     * @return this batch.
+     */
+    @NotNull
+    public ProgressBatch fill(@NotNull Player player, @NotNull AdvancementCatalog catalog, @NotNull Iterable<NamespacedKey> keys) {
+        start(catalog, 0);
+
+        for (NamespacedKey key : keys) {
+            int ordinal = catalog.getOrdinal(key);
+            if (ordinal < 0) continue;
+
+            if (size == infos.length) grow();
+            add(player, ordinal);
+        }
+        return this;
+    }
+
+    /**
+     * Fills this batch with the progress of the given player on every advancement of a tab, parents before
+     * their children.
+     *
+     * @param player  the player.
+     * @param catalog the catalog holding the tab.
+     * @param root    the key of the root advancement of the tab.
+     * @return this batch, empty if the root is not in the catalog.
+     */
+    @NotNull
+    public ProgressBatch fillTab(@NotNull Player player, @NotNull AdvancementCatalog catalog, @NotNull NamespacedKey root) {
+        start(catalog, 0);
+
+        int ordinal = catalog.getOrdinal(root);
+        if (ordinal < 0) return this;
+
+        AdvancementTree tree = catalog.getTree();
+        int start = tree.getRoot(ordinal);
+
+        for (int i = start; i >= 0; i = tree.next(start, i)) {
+            if (size == infos.length) grow();
+            add(player, i);
+        }
+        return this;
+    }
+
+    /**
+     * Fills this batch with the progress of the given player on every advancement of the catalog, by ordinal.
+     *
+     * @param player  the player.
+     * @param catalog the catalog.
+     * @return this batch.
+     */
+    @NotNull
+    public ProgressBatch fillAll(@NotNull Player player, @NotNull AdvancementCatalog catalog) {
+        start(catalog, catalog.size());
+        for (int i = 0; i < catalog.size(); i++) add(player, i);
+        return this;
+    }
+
+    private void grow() {
+        int capacity = infos.length * 2;
+
+        infos = Arrays.copyOf(infos, capacity);
+        ordinals = Arrays.copyOf(ordinals, capacity);
+        awarded = Arrays.copyOf(awarded, capacity);
+        remaining = Arrays.copyOf(remaining, capacity);
+        completed = Arrays.copyOf(completed, capacity);
+    }
+
+    /**
+     * Returns the number of advancements of the last fill.
+     *
+     * @return the batch size.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int check(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size);
+        return index;
+    }
+
+    /**
+     * Returns the advancement at the given position.
+     *
+     * @param index the position, between {@code 0} and {@link #size()} (exclusive).
+     * @return the advancement info.
+     */
+    @NotNull
+    public AdvancementInfo getInfo(int index) {
+        return infos[check(index)];
+    }
+
+    /**
+     * Returns the catalog ordinal of the advancement at the given position.
+     *
+     * @param index the position.
+     * @return the ordinal.
+     */
+    public int getOrdinal(int index) {
+        return ordinals[check(index)];
+    }
+
+    /**
+     * Returns the number of criteria the player was awarded for the advancement at the given position.
+     *
+     * @param index the position.
+     * @return the awarded criteria.
+     */
+    public int getAwarded(int index) {
+        return awarded[check(index)];
+    }
+
+    /**
+     * Returns the number of criteria the player is still missing for the advancement at the given position.
+     *
+     * @param index the position.
+     * @return the remaining criteria.
+     */
+    public int getRemaining(int index) {
+        return remaining[check(index)];
+    }
+
+    /**
+     * Checks if the player completed the advancement at the given position.
+     *
+     * @param index the position.
+     * @return {@code true} if the advancement is done.
+     */
+    public boolean isDone(int index) {
+        return completed[check(index)] >= 0;
+    }
+
+    /**
+     * Returns when the player completed the advancement at the given position, which is when its last
+     * criterion was awarded.
+     *
+     * @param index the position.
+     * @return the completion time in epoch milliseconds, {@code 0} if unknown, or {@code -1} if the advancement is
+     * not done.
+     */
+    public long getCompletionTime(int index) {
+        return completed[check(index)];
+    }
+
+    @Override
+    public String toString() {
+        return "ProgressBatch{catalog=" + (catalog == null ? "none" : catalog.getVersion()) + ", size=" + size + '}';
+    }
+}
@@ -0,0 +1,126 @@
+package me.croabeast.advancement;
+
+import lombok.experimental.UtilityClass;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Utility class that computes how many players earned each advancement, from the player advancement files.
+ * <p>
+ * The scanner lists {@code <world>/advancements/*.json} with NIO, parses the files in parallel on the library's
+ * fork-join pool with a streaming JSON parser, and aggregates the completions into a primitive array aligned
+ * with the catalog ordinals. Scans never run on the calling thread.
+ * </p>
+ * <p>
+ * When a scan completes, its result is attached to the scanned catalog, so it becomes available through
+ * {@link AdvancementCatalog#getRarity()} and {@link AdvancementInfo#getCompletionRate()}.
+ * </p>
+ *
+ * @see RarityStats
+ */
+@UtilityClass
+public class RarityScanner {
+
+    /**
+     * Scans the advancement files of the main world against the given catalog.
+     * <p>
+     * This method must be called on the main server thread; the scan itself runs asynchronously.
+     * </p>
+     *
+     * @param catalog the catalog to align the statistics with.
+     * @return a future completed with the statistics.
+     */
+    @NotNull
+    public CompletableFuture<RarityStats> scan(@NotNull AdvancementCatalog catalog) {
+        Path world = Bukkit.getWorlds().get(0).getWorldFolder().toPath();
+        return scan(world.resolve("advancements"), catalog);
+    }
+
+    /**
+     * Scans the player advancement files of the given directory against the given catalog.
+     *
+     * @param directory the directory holding the {@code <uuid>.json} player files.
+     * @param catalog   the catalog to align the statistics with.
+     * @return a future completed with the statistics.
+     */
+    @NotNull
+    public CompletableFuture<RarityStats> scan(@NotNull Path directory, @NotNull AdvancementCatalog catalog) {
+        return Workers.supply(() -> {
+            List<Path> files;
+            try {
+                files = PlayerAdvancementFile.list(directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            Map<String, Integer> ordinals = new HashMap<>(catalog.size() * 4 / 3 + 1);
+            for (int i = 0; i < catalog.size(); i++)
+                ordinals.put(catalog.get(i).getKey().toString(), i);
+
+            final int size = catalog.size();
+            Tally tally = files.parallelStream().collect(
+                    () -> new Tally(size),
+                    (t, file) -> t.read(file, ordinals),
+                    Tally::merge
+            );
+
+            RarityStats stats = new RarityStats(catalog, tally.counts, tally.players, tally.failed);
+            catalog.setRarity(stats);
+            return stats;
+        });
+    }
+
+    /**
+     * The partial counts of a subset of player files.
+     */
+    private static final class Tally {
+
+        private final int[] counts;
+        private int players = 0, failed = 0;
+
+        /**
+         * The ordinals completed in the file being read, only counted once the whole file was parsed.
+         */
+        private int[] pending = new int[64];
+        private int pendingSize = 0;
+
+        private Tally(int size) {
+            counts = new int[size];
+        }
+
+        private void read(Path file, Map<String, Integer> ordinals) {
+            pendingSize = 0;
+            try {
+                PlayerAdvancementFile.readCompleted(file, key -> {
+                    Integer ordinal = ordinals.get(key);
+                    if (ordinal == null) return;
+
+                    if (pendingSize == pending.length)
+                        pending = Arrays.copyOf(pending, pendingSize * 2);
+                    pending[pendingSize++] = ordinal;
+                });
+            } catch (Exception e) {
+                failed++;
+                return;
+            }
+
+            for (int i = 0; i < pendingSize; i++) counts[pending[i]]++;
+            players++;
+        }
+
+        private void merge(Tally other) {
+            for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+            players += other.players;
+            failed += other.failed;
+        }
+    }
+}
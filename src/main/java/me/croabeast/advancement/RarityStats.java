@@ -0,0 +1,83 @@
+package me.croabeast.advancement;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Completion statistics of every advancement of an {@link AdvancementCatalog}, computed by a {@link RarityScanner}.
+ * <p>
+ * Counts are stored in a primitive array aligned with the catalog ordinals, so looking up how many players
+ * earned an advancement costs a single array access.
+ * </p>
+ *
+ * @see RarityScanner
+ * @see AdvancementInfo#getCompletionRate()
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public final class RarityStats {
+
+    /**
+     * The catalog these statistics are aligned with.
+     */
+    @Getter
+    private final AdvancementCatalog catalog;
+
+    /**
+     * The number of completions of each advancement, indexed by catalog ordinal.
+     */
+    private final int[] completions;
+
+    /**
+     * The number of player files that were scanned.
+     */
+    @Getter
+    private final int players;
+
+    /**
+     * The number of player files that could not be read.
+     */
+    @Getter
+    private final int failedFiles;
+
+    /**
+     * Returns the number of players that completed the advancement with the given ordinal.
+     *
+     * @param ordinal the catalog ordinal.
+     * @return the number of completions.
+     * @throws IndexOutOfBoundsException if the ordinal is out of range.
+     */
+    public int getCompletions(int ordinal) {
+        return completions[ordinal];
+    }
+
+    /**
+     * Returns the number of players that completed the given advancement.
+     *
+     * @param info the advancement info.
+     * @return the number of completions, or {@code 0} if the advancement is not in the catalog.
+     */
+    public int getCompletions(@NotNull AdvancementInfo info) {
+        int ordinal = catalog.getOrdinal(info.getKey());
+        return ordinal < 0 ? 0 : completions[ordinal];
+    }
+
+    /**
+     * Returns the fraction of scanned players that completed the given advancement.
+     *
+     * @param info the advancement info.
+     * @return a value between {@code 0} and {@code 1}, or {@code -1} if the advancement is not in the catalog.
+     */
+    public double getRate(@NotNull AdvancementInfo info) {
+        int ordinal = catalog.getOrdinal(info.getKey());
+        if (ordinal < 0) return -1;
+
+        return players == 0 ? 0 : (double) completions[ordinal] / players;
+    }
+
+    @Override
+    public String toString() {
+        return "RarityStats{catalog=" + catalog.getVersion() + ", players=" + players + ", failed=" + failedFiles + '}';
+    }
+}
@@ -7,7 +7,6 @@ import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Constructor;
 import java.util.Arrays;
 import java.util.stream.Collectors;
 
@@ -21,7 +20,8 @@ import java.util.stream.Collectors;
  * </p>
  * <p>
  * The implementation converts internal chat components into plain text using reflection,
- * and it also converts an internal NMS item representation into a Bukkit {@link ItemStack}.
+ * and it also converts an internal NMS item representation into a shared Bukkit {@link ItemStack}
+ * through the {@link IconCache}.
  * </p>
  *
  * @see AdvancementInfo
@@ -42,10 +42,10 @@ class ReflectInfoImpl extends AdvancementImpl {
     private final String description;
 
     /**
-     * The icon representing the advancement, converted from an internal NMS item.
+     * The shared icon representing the advancement, converted from an internal NMS item.
      */
     @Nullable
-    private final ItemStack icon;
+    private final ItemStack sharedIcon;
 
     /**
      * Indicates whether a toast notification should be displayed when this advancement is achieved.
@@ -79,6 +79,16 @@ class ReflectInfoImpl extends AdvancementImpl {
      */
     private final Frame frame;
 
+    /**
+     * The display accessors that must be resolved for this implementation to work.
+     */
+    private static final Mappings.Entry[] DISPLAY_ENTRIES = {
+            Mappings.Entry.ADVANCEMENT_DISPLAY, Mappings.Entry.DISPLAY_TITLE, Mappings.Entry.DISPLAY_DESCRIPTION,
+            Mappings.Entry.DISPLAY_ICON, Mappings.Entry.DISPLAY_FRAME, Mappings.Entry.DISPLAY_SHOW_TOAST,
+            Mappings.Entry.DISPLAY_ANNOUNCE_CHAT, Mappings.Entry.DISPLAY_HIDDEN, Mappings.Entry.DISPLAY_X,
+            Mappings.Entry.DISPLAY_Y
+    };
+
     /**
      * Helper method to convert an internal chat component to plain text.
      * <p>
@@ -94,12 +104,13 @@ class ReflectInfoImpl extends AdvancementImpl {
     private static String fromComponent(Object object, String def) {
         if (object == null) return def;
 
-        Class<?> chat = ReflectionUtils.MC_VS >= 17.0 ?
+        ServerVersion version = ServerVersion.current();
+        Class<?> chat = version.isAtLeast(1, 17) ?
                 ReflectionUtils.clazz("net.minecraft.network.chat.IChatBaseComponent") :
                 ReflectionUtils.getNmsClass("IChatBaseComponent");
         if (chat == null) return def;
 
-        String methodName = ReflectionUtils.MC_VS < 13.0 ? "toPlainText" : "getString";
+        String methodName = !version.isAtLeast(1, 13) ? "toPlainText" : "getString";
         try {
             return chat.getMethod(methodName).invoke(object).toString();
         } catch (Exception e) {
@@ -107,35 +118,11 @@ class ReflectInfoImpl extends AdvancementImpl {
         }
     }
 
-    /**
-     * Converts an internal NMS item representation to a Bukkit {@link ItemStack}.
-     *
-     * @param nmsItem the internal item object.
-     * @return the corresponding {@link ItemStack}, or {@code null} if conversion fails.
-     */
-    private static ItemStack getItem(Object nmsItem) {
-        if (nmsItem == null) return null;
-        Class<?> clazz = ReflectionUtils.fromBukkit("inventory.CraftItemStack");
-        if (clazz == null) return null;
-        Constructor<?> ct;
-        try {
-            ct = clazz.getDeclaredConstructor(nmsItem.getClass());
-            ct.setAccessible(true);
-        } catch (NoSuchMethodException e) {
-            return null;
-        }
-        try {
-            return (ItemStack) ct.newInstance(nmsItem);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
     /**
      * Constructs a new {@code ReflectInfoImpl} by extracting advancement display information via reflection.
      * <p>
-     * This constructor extracts display information from the advancement's internal handle using
-     * {@link ReflectionUtils.FieldFinder} to retrieve fields for title, description, icon, display coordinates,
+     * This constructor extracts display information from the advancement's internal handle using the
+     * accessors resolved by {@link Mappings} to retrieve fields for title, description, icon, display coordinates,
      * toast and chat announcement settings, hidden state, and frame type.
      * </p>
      *
@@ -146,8 +133,12 @@ class ReflectInfoImpl extends AdvancementImpl {
         super(advancement);
 
         // Retrieve display data from the internal advancement handle.
-        ReflectionUtils.FieldFinder find = ReflectionUtils.from(handle);
-        find = ReflectionUtils.from(find.get("AdvancementDisplay"));
+        Mappings map = Mappings.get();
+        map.require(DISPLAY_ENTRIES);
+
+        Object display = map.get(Mappings.Entry.ADVANCEMENT_DISPLAY, handle);
+        if (display == null)
+            throw new IllegalStateException("No display for " + advancement.getKey());
 
         // Format the key from the advancement's key.
         String key = getBukkit().getKey().toString();
@@ -157,24 +148,24 @@ class ReflectInfoImpl extends AdvancementImpl {
                 .collect(Collectors.joining(" "));
 
         // Extract title and description from internal fields.
-        this.title = fromComponent(find.byName("a"), key);
-        String d = fromComponent(find.byName("b"), "No description.");
+        this.title = fromComponent(map.get(Mappings.Entry.DISPLAY_TITLE, display), key);
+        String d = fromComponent(map.get(Mappings.Entry.DISPLAY_DESCRIPTION, display), "No description.");
         this.description = d.replaceAll("\\\\n", " ");
 
-        // Retrieve the icon.
-        this.icon = getItem(find.byName("c"));
+        // Retrieve the shared icon, converting the NMS item only once.
+        this.sharedIcon = IconCache.fromNms(map.get(Mappings.Entry.DISPLAY_ICON, display));
 
         // Retrieve display coordinates.
-        this.x = find.byName("i");
-        this.y = find.byName("j");
+        this.x = map.<Float>get(Mappings.Entry.DISPLAY_X, display);
+        this.y = map.<Float>get(Mappings.Entry.DISPLAY_Y, display);
 
         // Retrieve display options: toast, chat announcement, and hidden status.
-        this.showToast = find.byName("f");
-        this.announceChat = find.byName("g");
-        this.hidden = find.byName("h");
+        this.showToast = map.<Boolean>get(Mappings.Entry.DISPLAY_SHOW_TOAST, display);
+        this.announceChat = map.<Boolean>get(Mappings.Entry.DISPLAY_ANNOUNCE_CHAT, display);
+        this.hidden = map.<Boolean>get(Mappings.Entry.DISPLAY_HIDDEN, display);
 
         // Retrieve and convert the frame type.
-        final Object type = find.byName("e");
+        final Object type = map.get(Mappings.Entry.DISPLAY_FRAME, display);
         this.frame = Frame.fromName(type != null ? type.toString() : null);
     }
 
@@ -2,13 +2,11 @@ package me.croabeast.advancement;
 
 import lombok.experimental.UtilityClass;
 import org.bukkit.Bukkit;
+import org.bukkit.Server;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Field;
 import java.util.Objects;
-import java.util.function.Supplier;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Utility class providing reflection methods to facilitate interaction with internal
@@ -22,7 +20,7 @@ import java.util.regex.Pattern;
  * <p>
  * Key features include:
  * <ul>
- *   <li>Retrieving Bukkit classes based on the server package.</li>
+ *   <li>Retrieving Bukkit classes based on the server package, resolved lazily.</li>
  *   <li>Retrieving NMS classes using the server version extracted from Bukkit's version string.</li>
  *   <li>A nested {@link FieldFinder} class to search and retrieve fields from an object's class.</li>
  * </ul>
@@ -35,26 +33,26 @@ import java.util.regex.Pattern;
 class ReflectionUtils {
 
     /**
-     * The package name of the CraftBukkit server implementation.
+     * The package name of the CraftBukkit server implementation, resolved on first use.
      */
-    final String CRAFT_BUKKIT_PACKAGE = Bukkit.getServer().getClass().getPackage().getName();
+    private volatile String craftBukkitPackage = null;
 
     /**
-     * The Minecraft server version extracted from the Bukkit version string.
+     * Returns the package name of the CraftBukkit server implementation.
      * <p>
-     * The version is parsed using a regular expression to match a version number in the format "1.x"
-     * and is returned as a {@code double}. If the version cannot be determined, it defaults to 0.0.
+     * The package is resolved lazily, so this class can be loaded without a running server.
      * </p>
+     *
+     * @return the CraftBukkit package, or {@code null} if no server is running.
      */
-    final double MC_VS = ((Supplier<Double>) () -> {
-        Matcher m = Pattern.compile("1\\.(\\d+(\\.\\d+)?)").matcher(Bukkit.getVersion());
-        if (!m.find()) return 0.0;
-        try {
-            return Double.parseDouble(m.group(1));
-        } catch (Exception e) {
-            return 0.0;
-        }
-    }).get();
+    @Nullable
+    String getCraftBukkitPackage() {
+        String result = craftBukkitPackage;
+        if (result != null) return result;
+
+        Server server = Bukkit.getServer();
+        return server == null ? null : (craftBukkitPackage = server.getClass().getPackage().getName());
+    }
 
     /**
      * Attempts to load a class by its fully qualified name.
@@ -79,7 +77,8 @@ class ReflectionUtils {
      */
     @Nullable
     Class<?> fromBukkit(String name) {
-        return clazz(CRAFT_BUKKIT_PACKAGE + '.' + name);
+        String craft = getCraftBukkitPackage();
+        return craft == null ? null : clazz(craft + '.' + name);
     }
 
     /**
@@ -94,7 +93,11 @@ class ReflectionUtils {
      */
     @Nullable
     Class<?> getNmsClass(String name) {
-        return clazz("net.minecraft.server" + "." + CRAFT_BUKKIT_PACKAGE.split("\\.")[3] + "." + name);
+        String craft = getCraftBukkitPackage();
+        if (craft == null) return null;
+
+        String[] parts = craft.split("\\.");
+        return parts.length < 4 ? null : clazz("net.minecraft.server" + "." + parts[3] + "." + name);
     }
 
     /**
@@ -0,0 +1,100 @@
+package me.croabeast.advancement;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Utility class that copies the rewards of an advancement into library-owned JSON.
+ * <p>
+ * Internal server rewards are read through reflection into the JSON form datapacks use, with the
+ * {@code experience}, {@code loot}, {@code recipes} and {@code function} members, so detached infos built from
+ * the server and from datapack files hold the same kind of rewards. Field names are obfuscated on some servers,
+ * so fields are told apart by type and declaration order, which all versions share: the experience is the only
+ * number, loot tables come before recipes, and the function is the remaining field.
+ * </p>
+ */
+@UtilityClass
+class RewardsDecoder {
+
+    /**
+     * Copies the given rewards into JSON.
+     *
+     * @param rewards the rewards, as held by an advancement.
+     * @return the JSON rewards, a deep copy if they already were JSON, or {@code null} if there are none or they
+     *         cannot be read.
+     */
+    @Nullable
+    JsonElement decode(@Nullable Object rewards) {
+        if (rewards == null) return null;
+        if (rewards instanceof JsonElement) return ((JsonElement) rewards).deepCopy();
+
+        JsonObject json = new JsonObject();
+        int lists = 0;
+
+        try {
+            for (Class<?> type = rewards.getClass(); type != null && type != Object.class; type = type.getSuperclass())
+                for (Field field : type.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) continue;
+
+                    field.setAccessible(true);
+                    Object value = field.get(rewards);
+                    if (value instanceof Optional<?>) value = ((Optional<?>) value).orElse(null);
+                    if (value == null) continue;
+
+                    if (value instanceof Integer) {
+                        json.addProperty("experience", (Integer) value);
+                        continue;
+                    }
+
+                    if (value instanceof Collection<?> || value.getClass().isArray()) {
+                        JsonArray array = new JsonArray();
+                        if (value instanceof Collection<?>)
+                            for (Object element : (Collection<?>) value) array.add(id(element));
+                        else
+                            for (int i = 0; i < Array.getLength(value); i++) array.add(id(Array.get(value, i)));
+
+                        json.add(lists++ == 0 ? "loot" : "recipes", array);
+                        continue;
+                    }
+
+                    json.addProperty("function", id(value));
+                }
+        } catch (Exception e) {
+            return null;
+        }
+
+        return json;
+    }
+
+    /**
+     * Returns the id of a key, a registry key or a function reference, falling back to its string form.
+     */
+    private String id(Object value) {
+        if (value == null || CriterionDecoder.isKey(value.getClass())) return String.valueOf(value);
+
+        // registry keys also return the id of their registry, but print as ResourceKey[registry / id]
+        String text = value.toString();
+        int separator = text.indexOf(" / ");
+        if (text.startsWith("ResourceKey[") && separator > 0 && text.endsWith("]"))
+            return text.substring(separator + 3, text.length() - 1);
+
+        for (Method method : value.getClass().getMethods())
+            if (method.getParameterCount() == 0 && !Modifier.isStatic(method.getModifiers()) &&
+                    CriterionDecoder.isKey(method.getReturnType()))
+                try {
+                    return String.valueOf(method.invoke(value));
+                } catch (Exception ignored) {}
+
+        return text;
+    }
+}
@@ -0,0 +1,125 @@
+package me.croabeast.advancement;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A structured Minecraft server version, made of a major, minor and patch number.
+ * <p>
+ * Unlike a decimal representation, versions such as {@code 1.20.10} and {@code 1.20.1} are ordered
+ * correctly, and versions with a different major number are supported as well.
+ * </p>
+ *
+ * @see Bukkit#getVersion()
+ */
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+final class ServerVersion implements Comparable<ServerVersion> {
+
+    /**
+     * The version used when the running server version cannot be determined.
+     */
+    static final ServerVersion UNKNOWN = new ServerVersion(0, 0, 0);
+
+    private static final Pattern SERVER_PATTERN = Pattern.compile("\\(MC: (\\d+)\\.(\\d+)(?:\\.(\\d+))?");
+    private static final Pattern PLAIN_PATTERN = Pattern.compile("(\\d+)\\.(\\d+)(?:\\.(\\d+))?");
+
+    private static ServerVersion current = null;
+
+    private final int major, minor, patch;
+
+    /**
+     * Checks if this version is equal to or newer than the given version.
+     *
+     * @param major the major number.
+     * @param minor the minor number.
+     * @param patch the patch number.
+     * @return {@code true} if this version is at least the given one; {@code false} otherwise.
+     */
+    boolean isAtLeast(int major, int minor, int patch) {
+        if (this.major != major) return this.major > major;
+        if (this.minor != minor) return this.minor > minor;
+        return this.patch >= patch;
+    }
+
+    /**
+     * Checks if this version is equal to or newer than the given version, with a patch number of zero.
+     *
+     * @param major the major number.
+     * @param minor the minor number.
+     * @return {@code true} if this version is at least the given one; {@code false} otherwise.
+     */
+    boolean isAtLeast(int major, int minor) {
+        return isAtLeast(major, minor, 0);
+    }
+
+    @Override
+    public int compareTo(@NotNull ServerVersion o) {
+        if (major != o.major) return Integer.compare(major, o.major);
+        if (minor != o.minor) return Integer.compare(minor, o.minor);
+        return Integer.compare(patch, o.patch);
+    }
+
+    @Override
+    public String toString() {
+        return major + "." + minor + "." + patch;
+    }
+
+    /**
+     * Parses a version string such as {@code 1.20.4} or {@code 1.19}.
+     *
+     * @param version the version string.
+     * @return the parsed version, or {@link #UNKNOWN} if the string holds no version.
+     */
+    @NotNull
+    static ServerVersion parse(String version) {
+        if (version == null) return UNKNOWN;
+
+        Matcher m = SERVER_PATTERN.matcher(version);
+        if (!m.find()) {
+            m = PLAIN_PATTERN.matcher(version);
+            if (!m.find()) return UNKNOWN;
+        }
+
+        try {
+            String patch = m.group(3);
+            return new ServerVersion(
+                    Integer.parseInt(m.group(1)),
+                    Integer.parseInt(m.group(2)),
+                    patch == null ? 0 : Integer.parseInt(patch)
+            );
+        } catch (Exception e) {
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * Returns the version of the running server, parsed once from {@link Bukkit#getVersion()}.
+     * <p>
+     * {@link #UNKNOWN} is never cached, so a call made before the server exists does not hide its version
+     * from later calls.
+     * </p>
+     *
+     * @return the running server version, or {@link #UNKNOWN} if there is no server.
+     */
+    @NotNull
+    static ServerVersion current() {
+        if (current != null) return current;
+
+        ServerVersion version;
+        try {
+            version = parse(Bukkit.getVersion());
+        } catch (Exception e) {
+            return UNKNOWN;
+        }
+        return version == UNKNOWN ? version : (current = version);
+    }
+}
@@ -0,0 +1,117 @@
+package me.croabeast.advancement;
+
+import org.bukkit.NamespacedKey;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A library-owned pool that deduplicates the strings and keys of a catalog while it is built.
+ * <p>
+ * Criterion names, repeated titles and descriptions, namespaces and parent keys are replaced by the first
+ * equal instance seen, so each distinct value is retained once per catalog instead of once per advancement.
+ * Unlike {@link String#intern()}, the pool is dropped with the build, so nothing outlives the catalog.
+ * </p>
+ * <p>
+ * The pool keeps an estimate of the retained heap saved by each replacement, assuming compact strings and
+ * compressed object pointers. It is thread-safe, so parallel loaders can share a single pool.
+ * </p>
+ */
+final class StringPool {
+
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+    private final Map<NamespacedKey, NamespacedKey> keys = new ConcurrentHashMap<>();
+
+    private final AtomicLong shared = new AtomicLong(), savedBytes = new AtomicLong();
+
+    /**
+     * Returns the pooled instance equal to the given string.
+     *
+     * @param string the string to deduplicate.
+     * @return the pooled string, or {@code null} if the given string is {@code null}.
+     */
+    String intern(@Nullable String string) {
+        if (string == null) return null;
+
+        String pooled = strings.putIfAbsent(string, string);
+        if (pooled == null || pooled == string) return string;
+
+        shared.incrementAndGet();
+        savedBytes.addAndGet(sizeOf(string));
+        return pooled;
+    }
+
+    /**
+     * Returns the pooled instance equal to the given key.
+     *
+     * @param key the key to deduplicate.
+     * @return the pooled key, or {@code null} if the given key is {@code null}.
+     */
+    NamespacedKey intern(@Nullable NamespacedKey key) {
+        if (key == null) return null;
+
+        NamespacedKey pooled = keys.putIfAbsent(key, key);
+        if (pooled == null || pooled == key) return key;
+
+        long size = 24;
+        if (key.getNamespace() != pooled.getNamespace()) size += sizeOf(key.getNamespace());
+        if (key.getKey() != pooled.getKey()) size += sizeOf(key.getKey());
+
+        shared.incrementAndGet();
+        savedBytes.addAndGet(size);
+        return pooled;
+    }
+
+    /**
+     * Returns an unmodifiable copy of the given requirements, with every criterion name deduplicated.
+     *
+     * @param requirements the requirements to copy.
+     * @return the pooled copy, or {@code null} if the given requirements are {@code null}.
+     */
+    List<List<String>> intern(@Nullable List<List<String>> requirements) {
+        if (requirements == null) return null;
+
+        List<List<String>> list = new ArrayList<>(requirements.size());
+        for (List<String> group : requirements) {
+            List<String> copy = new ArrayList<>(group.size());
+            for (String criterion : group) copy.add(intern(criterion));
+            list.add(Platform.copyOf(copy));
+        }
+
+        return Platform.copyOf(list);
+    }
+
+    /**
+     * Returns the number of instances replaced by a pooled one.
+     *
+     * @return the number of deduplicated instances.
+     */
+    long getShared() {
+        return shared.get();
+    }
+
+    /**
+     * Returns an estimate of the retained heap saved by the deduplicated instances.
+     *
+     * @return the saved bytes.
+     */
+    long getSavedBytes() {
+        return savedBytes.get();
+    }
+
+    /**
+     * Estimates the retained size of a string: the object header and fields, plus its backing array.
+     */
+    private static long sizeOf(String string) {
+        boolean latin1 = true;
+        for (int i = 0; i < string.length() && latin1; i++)
+            latin1 = string.charAt(i) < 256;
+
+        long array = 16 + (long) string.length() * (latin1 ? 1 : 2);
+        return 24 + (array + 7 & ~7L);
+    }
+}
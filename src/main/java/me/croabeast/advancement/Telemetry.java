@@ -0,0 +1,93 @@
+package me.croabeast.advancement;
+
+import lombok.experimental.UtilityClass;
+import org.bukkit.advancement.Advancement;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Entry point for the Java Flight Recorder events emitted by the library.
+ * <p>
+ * Events are disabled by default and can be enabled by starting the server with the
+ * {@value #PROPERTY} system property set to {@code true}, on Java 11 and newer. When disabled, or when the
+ * running JVM has no {@code jdk.jfr} API, every method reduces to a constant check and the {@link JfrEvents}
+ * events are never loaded, so instrumented code paths pay nothing.
+ * </p>
+ * <p>
+ * Methods that measure a duration come in pairs: the {@code begin} method returns an opaque event
+ * (or {@code null} when disabled) that must be handed back to the matching {@code end} method.
+ * </p>
+ *
+ * @see JfrEvents
+ */
+@UtilityClass
+class Telemetry {
+
+    /**
+     * The system property that enables the JFR events.
+     */
+    final String PROPERTY = "advancementinfo.jfr";
+
+    /**
+     * Whether JFR events are enabled and supported by the running JVM.
+     */
+    final boolean ENABLED = Boolean.getBoolean(PROPERTY) && isSupported();
+
+    /**
+     * A strategy that creates an {@link AdvancementInfo} from a Bukkit advancement.
+     */
+    @FunctionalInterface
+    interface Factory {
+        AdvancementInfo create(Advancement advancement) throws Exception;
+    }
+
+    private boolean isSupported() {
+        try {
+            // Java 8 servers load the baseline JfrEvents, which cannot record even if the JVM has JFR
+            Class.forName("jdk.jfr.Event");
+            return JfrEvents.isRecording();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates an info with the given strategy, recording its duration and outcome.
+     *
+     * @param advancement the Bukkit advancement.
+     * @param strategy    the name of the strategy.
+     * @param factory     the strategy itself.
+     * @return the created info.
+     * @throws Exception if the strategy fails.
+     */
+    AdvancementInfo create(Advancement advancement, String strategy, Factory factory) throws Exception {
+        return ENABLED ? JfrEvents.create(advancement, strategy, factory) : factory.create(advancement);
+    }
+
+    @Nullable
+    Object beginRefresh() {
+        return ENABLED ? JfrEvents.beginRefresh() : null;
+    }
+
+    void endRefresh(@Nullable Object event, int catalogVersion, int advancements, int failed, long savedBytes) {
+        if (ENABLED && event != null) JfrEvents.endRefresh(event, catalogVersion, advancements, failed, savedBytes);
+    }
+
+    @Nullable
+    Object beginWrap() {
+        return ENABLED ? JfrEvents.beginWrap() : null;
+    }
+
+    void endWrap(@Nullable Object event, int length, int width, int lines) {
+        if (ENABLED && event != null) JfrEvents.endWrap(event, length, width, lines);
+    }
+
+    /**
+     * Records a hit or a miss of one of the library caches.
+     *
+     * @param cache the name of the cache.
+     * @param hit   {@code true} for a hit; {@code false} for a miss.
+     */
+    void cache(String cache, boolean hit) {
+        if (ENABLED) JfrEvents.cache(cache, hit);
+    }
+}
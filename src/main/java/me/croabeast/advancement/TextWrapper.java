@@ -0,0 +1,324 @@
+package me.croabeast.advancement;
+
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Utility class to wrap legacy formatted text into lines that fit the width of a Minecraft tooltip.
+ * <p>
+ * Widths are measured in pixels from a precomputed table of the glyph advances of the default Minecraft font,
+ * so narrow glyphs such as {@code i} or {@code l} take less space than wide ones, and wide glyphs (CJK,
+ * full-width forms, emojis) take more. Legacy format codes introduced by {@code &} or {@code §}, including
+ * {@code &x} hex colors, are not counted towards the width, and bold text is measured one pixel wider per glyph.
+ * </p>
+ * <p>
+ * The active color and formats are carried onto every new line, so each line renders exactly as it would
+ * have in the original text. Wrapping is done in a single pass, without regular expressions.
+ * </p>
+ */
+@UtilityClass
+public class TextWrapper {
+
+    /**
+     * The advance, in pixels, of most glyphs of the default font, including the spacing pixel.
+     */
+    public final int DEFAULT_WIDTH = 6;
+
+    /**
+     * The advance, in pixels, of every glyph of the Basic Multilingual Plane.
+     */
+    private final byte[] WIDTHS = createWidths();
+
+    private byte[] createWidths() {
+        byte[] widths = new byte[Character.MAX_VALUE + 1];
+        Arrays.fill(widths, (byte) DEFAULT_WIDTH);
+
+        // Control characters are not rendered.
+        for (int c = 0; c < ' '; c++) widths[c] = 0;
+
+        // Glyph widths of the default ASCII font, plus the spacing pixel.
+        setWidths(widths, 2, "!',.:;i|");
+        setWidths(widths, 3, "`l");
+        setWidths(widths, 4, " \"I[]t");
+        setWidths(widths, 5, "()*<>fk{}");
+        setWidths(widths, 7, "@~");
+
+        // Combining marks are drawn over the previous glyph.
+        fill(widths, 0x0300, 0x036F, 0);
+
+        // Wide glyphs are rendered from the half-scaled unifont.
+        fill(widths, 0x1100, 0x115F, 9);
+        fill(widths, 0x2E80, 0x303E, 9);
+        fill(widths, 0x3041, 0x33FF, 9);
+        fill(widths, 0x3400, 0x4DBF, 9);
+        fill(widths, 0x4E00, 0x9FFF, 9);
+        fill(widths, 0xA000, 0xA4CF, 9);
+        fill(widths, 0xAC00, 0xD7A3, 9);
+        fill(widths, 0xF900, 0xFAFF, 9);
+        fill(widths, 0xFE30, 0xFE4F, 9);
+        fill(widths, 0xFF00, 0xFF60, 9);
+        fill(widths, 0xFFE0, 0xFFE6, 9);
+
+        // Supplementary glyphs, like emojis: the high surrogate carries the whole width.
+        fill(widths, 0xD800, 0xDBFF, 9);
+        fill(widths, 0xDC00, 0xDFFF, 0);
+
+        return widths;
+    }
+
+    private void setWidths(byte[] widths, int width, String chars) {
+        for (int i = 0; i < chars.length(); i++)
+            widths[chars.charAt(i)] = (byte) width;
+    }
+
+    private void fill(byte[] widths, int from, int to, int width) {
+        for (int c = from; c <= to; c++) widths[c] = (byte) width;
+    }
+
+    /**
+     * Returns the advance of the given character in the default font.
+     *
+     * @param c    the character.
+     * @param bold whether the character is rendered in bold.
+     * @return the width in pixels, including the spacing pixel.
+     */
+    public int charWidth(char c, boolean bold) {
+        int width = WIDTHS[c];
+        return bold && width > 0 && c != ' ' ? width + 1 : width;
+    }
+
+    /**
+     * Returns the visible width of the given legacy formatted text, ignoring format codes.
+     *
+     * @param text the text to measure.
+     * @return the width in pixels.
+     */
+    public int width(@NotNull String text) {
+        int width = 0;
+        boolean bold = false;
+
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+
+            int skip = codeLength(text, i);
+            if (skip > 0) {
+                char code = Character.toLowerCase(text.charAt(i + 1));
+                if (code == 'l') bold = true;
+                else if (code != 'k' && code != 'm' && code != 'n' && code != 'o') bold = false;
+
+                i += skip - 1;
+                continue;
+            }
+
+            width += charWidth(c, bold);
+        }
+
+        return width;
+    }
+
+    /**
+     * Returns the length of the format code starting at the given index.
+     *
+     * @return the code length, or {@code 0} if there is no format code at that index.
+     */
+    private int codeLength(String text, int index) {
+        char c = text.charAt(index);
+        if ((c != '&' && c != '§') || index + 1 >= text.length())
+            return 0;
+
+        char code = Character.toLowerCase(text.charAt(index + 1));
+        if (code != 'x')
+            return (code >= '0' && code <= '9') ||
+                    (code >= 'a' && code <= 'f') ||
+                    (code >= 'k' && code <= 'o') || code == 'r' ? 2 : 0;
+
+        // Hex colors follow the &x&r&r&g&g&b&b pattern.
+        if (index + 14 > text.length()) return 0;
+
+        for (int i = index + 2; i < index + 14; i += 2) {
+            char digit = Character.toLowerCase(text.charAt(i + 1));
+            if (text.charAt(i) != c ||
+                    !((digit >= '0' && digit <= '9') || (digit >= 'a' && digit <= 'f')))
+                return 0;
+        }
+
+        return 14;
+    }
+
+    /**
+     * Removes every legacy format code from the given text.
+     *
+     * @param text the text to strip.
+     * @return the plain text, the same instance if it had no format codes.
+     */
+    String strip(@NotNull String text) {
+        StringBuilder builder = null;
+
+        for (int i = 0; i < text.length(); ) {
+            int length = codeLength(text, i);
+            if (length > 0 && builder == null)
+                builder = new StringBuilder(text.length()).append(text, 0, i);
+
+            if (length == 0 && builder != null) builder.append(text.charAt(i));
+            i += Math.max(length, 1);
+        }
+
+        return builder == null ? text : builder.toString();
+    }
+
+    /**
+     * Wraps the given legacy formatted text into lines no wider than the given width.
+     * <p>
+     * Lines are broken at spaces and at line breaks; words wider than a whole line are split between
+     * characters. Every line after the first starts with the color and formats active at its start.
+     * </p>
+     *
+     * @param text     the text to wrap.
+     * @param maxWidth the maximum visible width of each line, in pixels.
+     * @return the wrapped lines, never empty.
+     */
+    @NotNull
+    public String[] wrap(@NotNull String text, int maxWidth) {
+        final Wrapper wrapper = new Wrapper(text.length(), Math.max(maxWidth, DEFAULT_WIDTH));
+
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+
+            int skip = codeLength(text, i);
+            if (skip > 0) {
+                wrapper.code(text, i, skip);
+                i += skip - 1;
+                continue;
+            }
+
+            if (c == '\n') {
+                wrapper.flushWord();
+                wrapper.breakLine(true);
+            } else if (c == ' ')
+                wrapper.flushWord();
+            else
+                wrapper.glyph(c);
+        }
+
+        wrapper.flushWord();
+        if (wrapper.lineWidth > 0 || wrapper.lines.isEmpty())
+            wrapper.breakLine(false);
+
+        return wrapper.lines.toArray(new String[0]);
+    }
+
+    /**
+     * The mutable state of a single wrapping pass.
+     */
+    private static final class Wrapper {
+
+        private final int maxWidth;
+        private final List<String> lines = new ArrayList<>();
+
+        private final StringBuilder line, word;
+        private int lineWidth = 0, wordWidth = 0;
+
+        /**
+         * The active color code (a plain or hex color), and the active format codes, in order of appearance.
+         */
+        private String color = "";
+        private final StringBuilder formats = new StringBuilder();
+        private boolean bold = false;
+
+        /**
+         * The formatting that was active when the pending word started.
+         */
+        private String wordPrefix = "";
+
+        private Wrapper(int capacity, int maxWidth) {
+            this.maxWidth = maxWidth;
+            line = new StringBuilder(capacity);
+            word = new StringBuilder();
+        }
+
+        private String prefix() {
+            return formats.length() == 0 ? color : color + formats;
+        }
+
+        private void startWord() {
+            if (word.length() == 0) wordPrefix = prefix();
+        }
+
+        private void code(String text, int index, int length) {
+            startWord();
+            word.append(text, index, index + length);
+
+            char code = Character.toLowerCase(text.charAt(index + 1));
+            if (code >= 'k' && code <= 'o') {
+                if (formats.indexOf(text.substring(index, index + 2)) < 0)
+                    formats.append(text, index, index + 2);
+                if (code == 'l') bold = true;
+                return;
+            }
+
+            // Colors and resets clear every active format.
+            color = code == 'r' ? "" : text.substring(index, index + length);
+            formats.setLength(0);
+            bold = false;
+        }
+
+        private void glyph(char c) {
+            int width = charWidth(c, bold);
+
+            // Words wider than a whole line are split between characters.
+            if (wordWidth + width > maxWidth && wordWidth > 0) {
+                if (lineWidth > 0) breakLine(false);
+                if (line.length() == 0) line.append(wordPrefix);
+
+                line.append(word);
+                lineWidth = wordWidth;
+
+                word.setLength(0);
+                wordWidth = 0;
+                breakLine(true);
+            }
+
+            startWord();
+            word.append(c);
+            wordWidth += width;
+        }
+
+        private void flushWord() {
+            if (word.length() == 0) return;
+
+            if (lineWidth > 0) {
+                int space = charWidth(' ', false);
+
+                if (lineWidth + space + wordWidth > maxWidth) {
+                    breakLine(false);
+                    line.append(wordPrefix);
+                } else {
+                    line.append(' ');
+                    lineWidth += space;
+                }
+            }
+            else if (line.length() == 0) line.append(wordPrefix);
+
+            line.append(word);
+            lineWidth += wordWidth;
+
+            word.setLength(0);
+            wordWidth = 0;
+        }
+
+        /**
+         * Emits the current line; if {@code carry} is set, the next line starts with the active formatting.
+         */
+        private void breakLine(boolean carry) {
+            lines.add(line.toString());
+            line.setLength(0);
+            lineWidth = 0;
+
+            if (carry) line.append(prefix());
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package me.croabeast.advancement;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The position of every advancement of an {@link AdvancementCatalog} on its tab, computed once per catalog.
+ * <p>
+ * Tabs whose advancements carry coordinates, as reported by the server, keep them. Tabs where every coordinate
+ * is {@code 0}, as on platforms that do not expose them or for advancements loaded from datapacks, are laid out
+ * like the vanilla advancements screen does: each advancement is placed one column right of its parent, and
+ * siblings are stacked with a tidy tree algorithm, so subtrees never overlap and parents are centered on their
+ * children.
+ * </p>
+ * <p>
+ * Coordinates are stored in primitive arrays indexed by catalog ordinal, so menus rendering a tab read them
+ * without any allocation or lookup. Layouts are immutable and safe to share between threads.
+ * </p>
+ *
+ * @see AdvancementCatalog#getLayout()
+ */
+public final class TreeLayout {
+
+    private final float[] xs, ys;
+
+    /**
+     * The size of the tab of each root, indexed by the ordinal of the root.
+     */
+    private final float[] widths, heights;
+
+    private final BitSet computed;
+    private final AdvancementTree tree;
+
+    TreeLayout(AdvancementCatalog catalog) {
+        tree = catalog.getTree();
+
+        int size = tree.size();
+        xs = new float[size];
+        ys = new float[size];
+        widths = new float[size];
+        heights = new float[size];
+        computed = new BitSet(size);
+
+        boolean[] positioned = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            AdvancementInfo info = catalog.get(i);
+            float x = info.getX(), y = info.getY();
+            if (Float.isNaN(x) || Float.isNaN(y)) continue;
+
+            xs[i] = x;
+            ys[i] = y;
+            if (x != 0 || y != 0) positioned[tree.getRoot(i)] = true;
+        }
+
+        Walker walker = null;
+        for (int i = 0; i < size; i++) {
+            if (tree.getParent(i) >= 0) continue;
+
+            if (!positioned[i]) {
+                if (walker == null) walker = new Walker(size);
+                walker.layout(i);
+                computed.set(i);
+            }
+
+            measure(i);
+        }
+    }
+
+    private void measure(int root) {
+        float width = 0, height = 0;
+
+        for (int i = root; i >= 0; i = tree.next(root, i)) {
+            width = Math.max(width, xs[i] + 1);
+            height = Math.max(height, ys[i] + 1);
+        }
+
+        widths[root] = width;
+        heights[root] = height;
+    }
+
+    /**
+     * Returns the column of the given advancement on its tab.
+     *
+     * @param ordinal the catalog ordinal.
+     * @return the x-coordinate.
+     */
+    public float getX(int ordinal) {
+        return xs[ordinal];
+    }
+
+    /**
+     * Returns the row of the given advancement on its tab.
+     *
+     * @param ordinal the catalog ordinal.
+     * @return the y-coordinate.
+     */
+    public float getY(int ordinal) {
+        return ys[ordinal];
+    }
+
+    /**
+     * Returns the number of columns used by the tab that holds the given advancement.
+     *
+     * @param ordinal the catalog ordinal of any advancement of the tab.
+     * @return the tab width.
+     */
+    public float getWidth(int ordinal) {
+        return widths[tree.getRoot(ordinal)];
+    }
+
+    /**
+     * Returns the number of rows used by the tab that holds the given advancement.
+     *
+     * @param ordinal the catalog ordinal of any advancement of the tab.
+     * @return the tab height.
+     */
+    public float getHeight(int ordinal) {
+        return heights[tree.getRoot(ordinal)];
+    }
+
+    /**
+     * Checks if the tab that holds the given advancement was laid out by this class.
+     *
+     * @param ordinal the catalog ordinal of any advancement of the tab.
+     * @return {@code true} if the coordinates were computed; {@code false} if they come from the server.
+     */
+    public boolean isComputed(int ordinal) {
+        return computed.get(tree.getRoot(ordinal));
+    }
+
+    @Override
+    public String toString() {
+        return "TreeLayout{size=" + xs.length + ", computed=" + computed.cardinality() + '}';
+    }
+
+    /**
+     * The tidy tree algorithm of Buchheim, Jünger and Leipert, which runs in linear time. Siblings are one row
+     * apart, as in the vanilla screen. Both walks go through the tree links instead of recursing, so deep
+     * chains of advancements cannot overflow the stack.
+     */
+    private final class Walker {
+
+        private final float[] prelim, mod, shift, change;
+        private final int[] thread, ancestor, number, lastChildren, previousSiblings, defaultAncestors;
+
+        private Walker(int size) {
+            prelim = new float[size];
+            mod = new float[size];
+            shift = new float[size];
+            change = new float[size];
+
+            thread = new int[size];
+            ancestor = new int[size];
+            number = new int[size];
+            lastChildren = new int[size];
+            previousSiblings = new int[size];
+            defaultAncestors = new int[size];
+
+            Arrays.fill(lastChildren, -1);
+            Arrays.fill(previousSiblings, -1);
+
+            for (int i = 0; i < size; i++) {
+                int index = 0, previous = -1;
+                for (int child = tree.getFirstChild(i); child >= 0; child = tree.getNextSibling(child)) {
+                    number[child] = index++;
+                    previousSiblings[child] = previous;
+                    previous = child;
+                }
+                lastChildren[i] = previous;
+            }
+        }
+
+        private void layout(int root) {
+            for (int i = root; i >= 0; i = tree.next(root, i)) {
+                prelim[i] = mod[i] = shift[i] = change[i] = 0;
+                thread[i] = -1;
+                ancestor[i] = i;
+                defaultAncestors[i] = tree.getFirstChild(i);
+            }
+
+            // first walk, in post-order: every advancement is placed right after its subtree
+            int current = root;
+            while (true) {
+                while (tree.getFirstChild(current) >= 0) current = tree.getFirstChild(current);
+
+                while (true) {
+                    place(current);
+                    if (current == root) break;
+
+                    int parent = tree.getParent(current);
+                    defaultAncestors[parent] = apportion(current, defaultAncestors[parent]);
+
+                    int sibling = tree.getNextSibling(current);
+                    if (sibling >= 0) {
+                        current = sibling;
+                        break;
+                    }
+                    current = parent;
+                }
+
+                if (current == root) break;
+            }
+
+            // second walk, in pre-order: the modifiers of the ancestors are summed into the final rows,
+            // reusing the change array, which is no longer needed, for the sums
+            float min = Float.MAX_VALUE;
+            for (int i = root; i >= 0; i = tree.next(root, i)) {
+                int parent = tree.getParent(i);
+                change[i] = i == root ? 0 : change[parent] + mod[parent];
+
+                xs[i] = tree.getDepth(i);
+                ys[i] = prelim[i] + change[i];
+                min = Math.min(min, ys[i]);
+            }
+
+            for (int i = root; i >= 0; i = tree.next(root, i)) ys[i] -= min;
+        }
+
+        private void place(int v) {
+            int left = previousSiblings[v], first = tree.getFirstChild(v);
+
+            if (first < 0) {
+                prelim[v] = left >= 0 ? prelim[left] + 1 : 0;
+                return;
+            }
+
+            executeShifts(v);
+
+            float middle = (prelim[first] + prelim[lastChildren[v]]) / 2;
+            if (left >= 0) {
+                prelim[v] = prelim[left] + 1;
+                mod[v] = prelim[v] - middle;
+            } else
+                prelim[v] = middle;
+        }
+
+        private int apportion(int v, int defaultAncestor) {
+            int left = previousSiblings[v];
+            if (left < 0) return defaultAncestor;
+
+            int vip = v, vop = v, vim = left, vom = tree.getFirstChild(tree.getParent(v));
+            float sip = mod[vip], sop = mod[vop], sim = mod[vim], som = mod[vom];
+
+            while (nextRight(vim) >= 0 && nextLeft(vip) >= 0) {
+                vim = nextRight(vim);
+                vip = nextLeft(vip);
+                vom = nextLeft(vom);
+                vop = nextRight(vop);
+                ancestor[vop] = v;
+
+                float distance = (prelim[vim] + sim) - (prelim[vip] + sip) + 1;
+                if (distance > 0) {
+                    int wm = tree.getParent(ancestor[vim]) == tree.getParent(v) ? ancestor[vim] : defaultAncestor;
+                    moveSubtree(wm, v, distance);
+                    sip += distance;
+                    sop += distance;
+                }
+
+                sim += mod[vim];
+                sip += mod[vip];
+                som += mod[vom];
+                sop += mod[vop];
+            }
+
+            if (nextRight(vim) >= 0 && nextRight(vop) < 0) {
+                thread[vop] = nextRight(vim);
+                mod[vop] += sim - sop;
+            }
+
+            if (nextLeft(vip) >= 0 && nextLeft(vom) < 0) {
+                thread[vom] = nextLeft(vip);
+                mod[vom] += sip - som;
+                defaultAncestor = v;
+            }
+
+            return defaultAncestor;
+        }
+
+        private int nextLeft(int v) {
+            int child = tree.getFirstChild(v);
+            return child >= 0 ? child : thread[v];
+        }
+
+        private int nextRight(int v) {
+            int child = lastChildren[v];
+            return child >= 0 ? child : thread[v];
+        }
+
+        private void moveSubtree(int wm, int wp, float distance) {
+            float subtrees = number[wp] - number[wm];
+            change[wp] -= distance / subtrees;
+            shift[wp] += distance;
+            change[wm] += distance / subtrees;
+            prelim[wp] += distance;
+            mod[wp] += distance;
+        }
+
+        private void executeShifts(int v) {
+            float total = 0, changes = 0;
+
+            for (int w = lastChildren[v]; w >= 0; w = previousSiblings[w]) {
+                prelim[w] += total;
+                mod[w] += total;
+                changes += change[w];
+                total += shift[w] + changes;
+            }
+        }
+    }
+}
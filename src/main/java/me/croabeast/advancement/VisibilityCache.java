@@ -0,0 +1,241 @@
+package me.croabeast.advancement;
+
+import org.bukkit.Bukkit;
+import org.bukkit.NamespacedKey;
+import org.bukkit.advancement.AdvancementProgress;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerAdvancementDoneEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Caches which advancements of the {@link AdvancementCatalog#current() current catalog} each online player
+ * can see, following the rules of the vanilla advancements screen.
+ * <p>
+ * An advancement is visible when it or any of its descendants is done, or when, walking up to two levels
+ * of ancestors starting at itself, a done advancement is reached before a {@link AdvancementInfo#isHidden()
+ * hidden} one. The visible set of a player is computed once from the catalog tree and the player's progress,
+ * then updated incrementally: completions are applied as they happen, and revokes, which fire no Bukkit
+ * event, can be applied with {@link #update(Player, NamespacedKey)}. The set is dropped when the player quits.
+ * </p>
+ * <p>
+ * All methods must be called on the main server thread.
+ * </p>
+ */
+public final class VisibilityCache implements Listener {
+
+    private final Plugin plugin;
+    private final Map<UUID, State> states = new HashMap<>();
+
+    private boolean registered = false;
+
+    /**
+     * Creates a visibility cache.
+     *
+     * @param plugin the plugin that owns the listener.
+     */
+    public VisibilityCache(@NotNull Plugin plugin) {
+        this.plugin = Objects.requireNonNull(plugin);
+    }
+
+    /**
+     * Registers this cache as a listener of completions and quits.
+     *
+     * @return this cache.
+     */
+    @NotNull
+    public VisibilityCache register() {
+        if (!registered) {
+            Bukkit.getPluginManager().registerEvents(this, plugin);
+            registered = true;
+        }
+        return this;
+    }
+
+    /**
+     * Stops listening to completions and quits, dropping every cached set.
+     */
+    public void unregister() {
+        if (!registered) return;
+
+        HandlerList.unregisterAll(this);
+        registered = false;
+        states.clear();
+    }
+
+    private State state(Player player) {
+        AdvancementCatalog catalog = AdvancementCatalog.current();
+        State state = states.get(player.getUniqueId());
+
+        boolean hit = state != null && state.catalog == catalog;
+        Telemetry.cache("visibility", hit);
+        if (hit) return state;
+
+        state = new State(catalog, player);
+        states.put(player.getUniqueId(), state);
+        return state;
+    }
+
+    /**
+     * Checks if the given player can see the advancement with the given ordinal.
+     *
+     * @param player  the player.
+     * @param ordinal the ordinal in the current catalog.
+     * @return {@code true} if the advancement is visible.
+     */
+    public boolean isVisible(@NotNull Player player, int ordinal) {
+        return state(player).visible.get(ordinal);
+    }
+
+    /**
+     * Checks if the given player can see the given advancement.
+     *
+     * @param player the player.
+     * @param info   the advancement.
+     * @return {@code true} if the advancement is visible; {@code false} if it is hidden or not in the current catalog.
+     */
+    public boolean isVisible(@NotNull Player player, @NotNull AdvancementInfo info) {
+        State state = state(player);
+        int ordinal = state.catalog.getOrdinal(info.getKey());
+        return ordinal >= 0 && state.visible.get(ordinal);
+    }
+
+    /**
+     * Returns the ordinals of every advancement of the current catalog the given player can see.
+     *
+     * @param player the player.
+     * @return a copy of the visible set, indexed by catalog ordinal.
+     */
+    @NotNull
+    public BitSet getVisible(@NotNull Player player) {
+        return (BitSet) state(player).visible.clone();
+    }
+
+    /**
+     * Reads again the progress of the given advancement, updating the visible set of the given player.
+     * <p>
+     * Completions are tracked automatically; this method is needed after criteria are revoked.
+     * </p>
+     *
+     * @param player the player.
+     * @param key    the key of the advancement whose progress changed.
+     */
+    public void update(@NotNull Player player, @NotNull NamespacedKey key) {
+        State state = states.get(player.getUniqueId());
+        if (state == null || state.catalog != AdvancementCatalog.current()) return;
+
+        int ordinal = state.catalog.getOrdinal(key);
+        if (ordinal >= 0) state.setDone(ordinal, state.isDone(player, ordinal));
+    }
+
+    /**
+     * Drops the visible set of the given player, so it is computed again on the next lookup.
+     *
+     * @param player the player.
+     */
+    public void invalidate(@NotNull Player player) {
+        states.remove(player.getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onCompletion(PlayerAdvancementDoneEvent event) {
+        State state = states.get(event.getPlayer().getUniqueId());
+        if (state == null) return;
+
+        int ordinal = state.catalog.getOrdinal(event.getAdvancement().getKey());
+        if (ordinal >= 0) state.setDone(ordinal, true);
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        states.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * The progress and visible set of a single player.
+     */
+    private static final class State {
+
+        private final AdvancementCatalog catalog;
+        private final AdvancementTree tree;
+
+        private final BitSet done, visible;
+
+        /**
+         * The number of done advancements in the subtree of each advancement, itself included.
+         */
+        private final int[] doneBelow;
+
+        private State(AdvancementCatalog catalog, Player player) {
+            this.catalog = catalog;
+            this.tree = catalog.getTree();
+
+            int size = catalog.size();
+            done = new BitSet(size);
+            visible = new BitSet(size);
+            doneBelow = new int[size];
+
+            for (int i = 0; i < size; i++) {
+                if (!isDone(player, i)) continue;
+
+                done.set(i);
+                for (int j = i; j >= 0; j = tree.getParent(j)) doneBelow[j]++;
+            }
+
+            for (int i = 0; i < size; i++) visible.set(i, computeVisible(i));
+        }
+
+        private boolean isDone(Player player, int ordinal) {
+            try {
+                AdvancementProgress progress = player.getAdvancementProgress(catalog.get(ordinal).getBukkit());
+                return progress.isDone();
+            } catch (IllegalStateException e) {
+                return false;
+            }
+        }
+
+        private boolean computeVisible(int ordinal) {
+            if (doneBelow[ordinal] > 0) return true;
+
+            int current = ordinal;
+            for (int i = 0; current >= 0 && i <= 2; i++) {
+                if (done.get(current)) return true;
+                if (catalog.get(current).isHidden()) return false;
+
+                current = tree.getParent(current);
+            }
+
+            return false;
+        }
+
+        private void setDone(int ordinal, boolean value) {
+            if (done.get(ordinal) == value) return;
+            done.set(ordinal, value);
+
+            // the subtree counts of the advancement and its ancestors change, and so may their visibility
+            for (int i = ordinal; i >= 0; i = tree.getParent(i)) {
+                doneBelow[i] += value ? 1 : -1;
+                visible.set(i, computeVisible(i));
+            }
+
+            // children and grandchildren walk up through this advancement
+            for (int child = tree.getFirstChild(ordinal); child >= 0; child = tree.getNextSibling(child)) {
+                visible.set(child, computeVisible(child));
+
+                for (int grandchild = tree.getFirstChild(child); grandchild >= 0; grandchild = tree.getNextSibling(grandchild))
+                    visible.set(grandchild, computeVisible(grandchild));
+            }
+        }
+    }
+}
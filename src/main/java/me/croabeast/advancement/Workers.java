@@ -0,0 +1,60 @@
+package me.croabeast.advancement;
+
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Utility class that owns the background threads used by the library.
+ * <p>
+ * Heavy jobs, such as scanning player files or parsing datapacks, run on a dedicated fork-join pool instead
+ * of the main server thread or the JVM-wide common pool. Parallel streams started from a task of this pool
+ * are split across the same pool.
+ * </p>
+ */
+@UtilityClass
+class Workers {
+
+    private final AtomicInteger COUNTER = new AtomicInteger();
+    private volatile ForkJoinPool pool = null;
+
+    /**
+     * Returns the fork-join pool of the library, creating it on first use.
+     *
+     * @return the shared pool.
+     */
+    @NotNull
+    ForkJoinPool pool() {
+        ForkJoinPool result = pool;
+        if (result != null) return result;
+
+        synchronized (Workers.class) {
+            if (pool != null) return pool;
+
+            int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            return pool = new ForkJoinPool(parallelism, p -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setName("AdvancementInfo-Worker-" + COUNTER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        }
+    }
+
+    /**
+     * Runs the given task on the library pool.
+     *
+     * @param task the task to run.
+     * @param <T>  the type of the result.
+     * @return a future completed with the result of the task.
+     */
+    @NotNull
+    <T> CompletableFuture<T> supply(@NotNull Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, pool());
+    }
+}
@@ -1,5 +1,129 @@
 package me.croabeast.advancement.plugin;
 
+import me.croabeast.advancement.AdvancementCatalog;
+import me.croabeast.advancement.AdvancementInfo;
+import me.croabeast.advancement.CatalogAnalyzer;
+import me.croabeast.advancement.CatalogFixture;
+import me.croabeast.advancement.CatalogReport;
+import me.croabeast.advancement.DatapackLoader;
+import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
 
-public final class AInfoPlugin extends JavaPlugin {}
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+public final class AInfoPlugin extends JavaPlugin {
+
+    @Override
+    public void onEnable() {
+        AdvancementInfo.validate();
+        AdvancementCatalog.setOrdinalFile(getDataFolder().toPath().resolve("ordinals.bin"));
+    }
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if (args.length < 1) return false;
+
+        switch (args[0].toLowerCase(Locale.ENGLISH)) {
+            case "capture":
+                if (args.length > 2) return false;
+                capture(sender, args.length > 1 ? args[1] : "catalog-" + System.currentTimeMillis());
+                return true;
+
+            case "analyze":
+                if (args.length > 2) return false;
+                if (args.length < 2) analyze(sender);
+                else if (args[1].equalsIgnoreCase("datapacks")) analyzeDatapacks(sender);
+                else return false;
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    private void capture(CommandSender sender, String name) {
+        if (!name.matches("[A-Za-z0-9_.-]+")) {
+            sender.sendMessage("Invalid fixture name: " + name);
+            return;
+        }
+
+        // criteria are decoded on the main thread, where the advancements cannot be reloaded meanwhile
+        AdvancementCatalog catalog = AdvancementCatalog.current();
+        for (int i = 0; i < catalog.size(); i++) catalog.getCriteria(i);
+
+        Path file = getDataFolder().toPath().resolve("fixtures").resolve(name + ".aifx");
+        Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
+            String message;
+            try {
+                CatalogFixture.capture(catalog, file);
+                message = "Captured " + catalog.size() + " advancements into " + file;
+            } catch (IOException e) {
+                message = "Could not write " + file + ": " + e;
+            }
+
+            String result = message;
+            Bukkit.getScheduler().runTask(this, () -> sender.sendMessage(result));
+        });
+
+        sender.sendMessage("Capturing " + catalog.size() + " advancements...");
+    }
+
+    private void analyze(CommandSender sender) {
+        AdvancementCatalog catalog = AdvancementCatalog.current();
+        sender.sendMessage("Analyzing " + catalog.size() + " advancements...");
+
+        report(sender, CatalogAnalyzer.analyze(catalog));
+    }
+
+    private void analyzeDatapacks(CommandSender sender) {
+        // the server refuses broken parents and cycles, so they can only be found in the files themselves
+        Path folder = Bukkit.getWorlds().get(0).getWorldFolder().toPath().resolve("datapacks");
+        List<Path> sources = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder)) {
+            for (Path source : stream)
+                if (Files.isDirectory(source) || source.getFileName().toString().endsWith(".zip")) sources.add(source);
+        } catch (IOException e) {
+            sender.sendMessage("Could not list " + folder + ": " + e);
+            return;
+        }
+
+        // the enabled order is not known here, so overriding datapacks are read in name order
+        Collections.sort(sources);
+        AdvancementCatalog known = AdvancementCatalog.current();
+        sender.sendMessage("Analyzing the advancements of " + sources.size() + " datapacks...");
+
+        report(sender, DatapackLoader.load(sources).thenCompose(catalog -> CatalogAnalyzer.analyze(catalog, known)));
+    }
+
+    private void report(CommandSender sender, CompletableFuture<CatalogReport> future) {
+        future.whenComplete((report, error) -> Bukkit.getScheduler().runTask(this, () -> {
+            if (error != null) {
+                sender.sendMessage("Could not analyze the advancements: " + error);
+                return;
+            }
+
+            sender.sendMessage("Found " + report.getIssues().size() + " issues in " +
+                    report.getElapsedNanos() / 1_000_000 + " ms" + (report.isEmpty() ? "." : ":"));
+
+            for (CatalogReport.Problem problem : CatalogReport.Problem.values()) {
+                int count = report.getCount(problem);
+                if (count > 0) sender.sendMessage(" - " + problem + ": " + count);
+            }
+
+            // the full list only goes to the console, where large reports can be read back
+            for (CatalogReport.Issue issue : report.getIssues()) getLogger().warning(issue.toString());
+        }));
+    }
+}
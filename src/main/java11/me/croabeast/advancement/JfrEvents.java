@@ -0,0 +1,156 @@
+package me.croabeast.advancement;
+
+import jdk.jfr.*;
+import org.bukkit.advancement.Advancement;
+
+/**
+ * Java Flight Recorder events emitted by the library, on Java 11 and newer.
+ * <p>
+ * This class is only loaded by {@link Telemetry} when JFR events are enabled and the running JVM
+ * provides the {@code jdk.jfr} API, so servers without JFR never resolve any of these types. The
+ * {@code jdk.jfr} API is not part of the Java 8 platform the base classes are compiled against, so this
+ * version lives in its own release.
+ * </p>
+ *
+ * @see Telemetry
+ */
+final class JfrEvents {
+
+    private static final String CATEGORY = "AdvancementInfo";
+
+    @Name("me.croabeast.advancement.Creation")
+    @Label("Advancement Info Creation")
+    @Description("Creation of an AdvancementInfo through one of the implementation strategies")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class Creation extends Event {
+
+        @Label("Key")
+        String key;
+
+        @Label("Strategy")
+        String strategy;
+
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name("me.croabeast.advancement.Refresh")
+    @Label("Catalog Refresh")
+    @Description("Rebuild of the advancement catalog from the server")
+    @Category(CATEGORY)
+    static final class Refresh extends Event {
+
+        @Label("Catalog Version")
+        int catalogVersion;
+
+        @Label("Advancements")
+        int advancements;
+
+        @Label("Failed")
+        int failed;
+
+        @Label("Deduplicated Bytes")
+        @DataAmount
+        long savedBytes;
+    }
+
+    @Name("me.croabeast.advancement.Wrap")
+    @Label("Description Wrap")
+    @Description("Wrapping of an advancement description into lines")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class Wrap extends Event {
+
+        @Label("Length")
+        int length;
+
+        @Label("Width")
+        int width;
+
+        @Label("Lines")
+        int lines;
+    }
+
+    @Name("me.croabeast.advancement.Cache")
+    @Label("Cache Lookup")
+    @Description("Hit or miss of one of the library caches")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class Cache extends Event {
+
+        @Label("Cache")
+        String cache;
+
+        @Label("Hit")
+        boolean hit;
+    }
+
+    private JfrEvents() {}
+
+    static boolean isRecording() {
+        return true;
+    }
+
+    static AdvancementInfo create(Advancement advancement, String strategy, Telemetry.Factory factory) throws Exception {
+        Creation event = new Creation();
+        event.begin();
+
+        try {
+            AdvancementInfo info = factory.create(advancement);
+            event.success = true;
+            return info;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.key = advancement.getKey().toString();
+                event.strategy = strategy;
+                event.commit();
+            }
+        }
+    }
+
+    static Object beginRefresh() {
+        Refresh event = new Refresh();
+        event.begin();
+        return event;
+    }
+
+    static void endRefresh(Object object, int catalogVersion, int advancements, int failed, long savedBytes) {
+        Refresh event = (Refresh) object;
+        event.end();
+        if (!event.shouldCommit()) return;
+
+        event.catalogVersion = catalogVersion;
+        event.advancements = advancements;
+        event.failed = failed;
+        event.savedBytes = savedBytes;
+        event.commit();
+    }
+
+    static Object beginWrap() {
+        Wrap event = new Wrap();
+        event.begin();
+        return event;
+    }
+
+    static void endWrap(Object object, int length, int width, int lines) {
+        Wrap event = (Wrap) object;
+        event.end();
+        if (!event.shouldCommit()) return;
+
+        event.length = length;
+        event.width = width;
+        event.lines = lines;
+        event.commit();
+    }
+
+    static void cache(String cache, boolean hit) {
+        Cache event = new Cache();
+        if (!event.isEnabled()) return;
+
+        event.cache = cache;
+        event.hit = hit;
+        event.commit();
+    }
+}
@@ -0,0 +1,90 @@
+package me.croabeast.advancement;
+
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Java 17 version of the platform operations.
+ * <p>
+ * Fields are read through method handles adapted to an exact {@code (Object) Object} type, and catalogs are
+ * built in parallel on the library pool.
+ * </p>
+ */
+@UtilityClass
+class Platform {
+
+    /**
+     * Returns the Java feature version this implementation was compiled for.
+     * <p>
+     * This is a method rather than a constant, so callers are not compiled against the baseline value.
+     * </p>
+     *
+     * @return the feature version.
+     */
+    int getFeature() {
+        return 17;
+    }
+
+    /**
+     * Creates a getter for an accessible instance field.
+     *
+     * @param field the field, already made accessible.
+     * @return a function reading the field from its owner object.
+     * @see PlatformSupport#getter(Field)
+     */
+    @NotNull
+    Function<Object, Object> getter(Field field) {
+        return PlatformSupport.getter(field);
+    }
+
+    /**
+     * Returns an unmodifiable copy of the given collection. Every version returns the same kind of list, which
+     * may hold {@code null} elements and be searched for them.
+     *
+     * @param collection the collection to copy.
+     * @param <T>        the type of the elements.
+     * @return an unmodifiable list.
+     */
+    @NotNull
+    <T> List<T> copyOf(Collection<? extends T> collection) {
+        return Collections.unmodifiableList(new ArrayList<>(collection));
+    }
+
+    /**
+     * Converts every element of the given list, keeping their order.
+     * <p>
+     * This version splits the conversion across the {@link Workers#pool() library pool} and waits for it, so
+     * the converter must be thread-safe.
+     * </p>
+     *
+     * @param list      the elements to convert.
+     * @param converter the conversion, which may return {@code null}.
+     * @param <T>       the type of the elements.
+     * @param <R>       the type of the converted elements.
+     * @return a new list of the converted elements.
+     * @see PlatformSupport#convert(List, Function)
+     */
+    @NotNull
+    <T, R> List<R> convert(List<T> list, Function<? super T, ? extends R> converter) {
+        return PlatformSupport.convert(list, converter);
+    }
+
+    /**
+     * Returns the executor for tasks that mostly wait on files or listeners, such as index writes and
+     * catalog deliveries.
+     *
+     * @return the executor.
+     */
+    @NotNull
+    Executor ioExecutor() {
+        return Workers.pool();
+    }
+}
@@ -0,0 +1,108 @@
+package me.croabeast.advancement;
+
+import me.croabeast.advancement.CatalogReport.Issue;
+import me.croabeast.advancement.CatalogReport.Problem;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogAnalyzerTest {
+
+    private static CatalogRecord record(String key, String parent, String title,
+                                        List<String> criteria, List<List<String>> requirements) {
+        return new CatalogRecord(
+                key, parent, title, "", null, 0, null, true, false, false, 0, 0,
+                AdvancementInfo.Frame.TASK, criteria, requirements
+        );
+    }
+
+    private static CatalogRecord record(String key, String parent) {
+        return record(key, parent, "Custom " + key, Collections.singletonList("done"),
+                Collections.singletonList(Collections.singletonList("done")));
+    }
+
+    private static AdvancementCatalog catalog(CatalogRecord... records) {
+        StringPool pool = new StringPool();
+
+        List<AdvancementInfo> infos = new ArrayList<>();
+        for (CatalogRecord record : records) infos.add(new DetachedInfo(record, pool));
+        return AdvancementCatalog.of(infos, pool);
+    }
+
+    private static Set<String> keys(CatalogReport report, Problem problem) {
+        Set<String> keys = new HashSet<>();
+        for (Issue issue : report.getIssues(problem)) keys.add(issue.getKey().toString());
+        return keys;
+    }
+
+    private static AdvancementCatalog sources() {
+        return catalog(
+                record("test:cycle_a", "test:cycle_c"),
+                record("test:cycle_b", "test:cycle_a"),
+                record("test:cycle_c", "test:cycle_b"),
+                record("test:self", "test:self"),
+                record("test:known_child", "minecraft:story/root"),
+                record("test:lost_child", "test:missing"),
+                record("test:requirement", null, "Custom requirement", Collections.singletonList("done"),
+                        Collections.singletonList(Arrays.asList("done", "absent"))),
+                record("test:no_criteria", null, "Custom criteria", Collections.emptyList(), null),
+                record("test:mine_stone", null, "Mine Stone", Collections.singletonList("done"), null),
+                record("test:raw_title", null, "test:raw_title", Collections.singletonList("done"), null),
+                record("test:no_title", null, " ", Collections.singletonList("done"), null)
+        );
+    }
+
+    @Test
+    void reportsEveryProblem() {
+        AdvancementCatalog known = catalog(record("minecraft:story/root", null));
+        CatalogReport report = CatalogAnalyzer.analyze(sources(), known).join();
+
+        assertEquals(4, report.getCount(Problem.CYCLE));
+        assertEquals(new HashSet<>(Arrays.asList("test:cycle_a", "test:cycle_b", "test:cycle_c", "test:self")),
+                keys(report, Problem.CYCLE));
+
+        Map<String, String> cycles = new HashMap<>();
+        for (Issue issue : report.getIssues(Problem.CYCLE)) cycles.put(issue.getKey().toString(), issue.getDetail());
+        assertEquals("3 advancements", cycles.get("test:cycle_b"));
+        assertEquals("1 advancements", cycles.get("test:self"));
+
+        // the parent held only by the known catalog is resolved there
+        assertEquals(1, report.getCount(Problem.UNRESOLVED_PARENT));
+        assertEquals("test:missing", report.getIssues(Problem.UNRESOLVED_PARENT).get(0).getDetail());
+
+        assertEquals(1, report.getCount(Problem.UNKNOWN_REQUIREMENT));
+        assertEquals("absent", report.getIssues(Problem.UNKNOWN_REQUIREMENT).get(0).getDetail());
+
+        assertEquals(1, report.getCount(Problem.MISSING_CRITERIA));
+        assertEquals(Collections.singleton("test:no_criteria"), keys(report, Problem.MISSING_CRITERIA));
+
+        assertEquals(2, report.getCount(Problem.FALLBACK_TITLE));
+        assertEquals(new HashSet<>(Arrays.asList("test:mine_stone", "test:raw_title")),
+                keys(report, Problem.FALLBACK_TITLE));
+
+        assertEquals(1, report.getCount(Problem.MISSING_TITLE));
+        assertEquals(0, report.getCount(Problem.EXTRACTION_FAILED));
+
+        // detached advancements carry no item, so none has an icon
+        assertEquals(11, report.getCount(Problem.MISSING_ICON));
+    }
+
+    @Test
+    void reportsParentsMissingWithoutKnownCatalog() {
+        CatalogReport report = CatalogAnalyzer.analyze(sources()).join();
+
+        assertEquals(new HashSet<>(Arrays.asList("test:known_child", "test:lost_child")),
+                keys(report, Problem.UNRESOLVED_PARENT));
+        assertEquals(4, report.getCount(Problem.CYCLE));
+    }
+
+    @Test
+    void issuesAreOrderedByOrdinal() {
+        List<Issue> issues = CatalogAnalyzer.analyze(sources()).join().getIssues();
+
+        for (int i = 1; i < issues.size(); i++)
+            assertTrue(issues.get(i - 1).getOrdinal() <= issues.get(i).getOrdinal());
+    }
+}
@@ -0,0 +1,141 @@
+package me.croabeast.advancement;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogCodecTest {
+
+    private static CatalogRecord record(String key, String parent, String title) {
+        return new CatalogRecord(
+                key, parent, title, title + " description", null, 0, null,
+                true, false, false, 0, 0, AdvancementInfo.Frame.TASK,
+                Collections.singletonList("done"), Collections.singletonList(Collections.singletonList("done"))
+        );
+    }
+
+    private static AdvancementCatalog catalog(CatalogRecord... records) {
+        StringPool pool = new StringPool();
+
+        List<AdvancementInfo> infos = new ArrayList<>();
+        for (CatalogRecord record : records) infos.add(new DetachedInfo(record, pool));
+        return AdvancementCatalog.of(infos, pool);
+    }
+
+    private static List<String> titles(AdvancementCatalog catalog) {
+        List<String> titles = new ArrayList<>();
+        for (AdvancementInfo info : catalog) titles.add(info.getTitle());
+        return titles;
+    }
+
+    @Test
+    void recordsRoundTrip() {
+        List<CatalogRecord> records = Arrays.asList(
+                record("minecraft:story/root", null, "Minecraft"),
+                new CatalogRecord(
+                        "minecraft:story/mine_diamond", "minecraft:story/root", "Diamonds!", "Acquire diamonds",
+                        "DIAMOND", 2, "icon:\n  type: DIAMOND\n", false, true, true, 1.5f, -2,
+                        AdvancementInfo.Frame.CHALLENGE, Arrays.asList("a", "b"), null
+                )
+        );
+
+        assertEquals(records, CatalogCodec.decodeRecords(ByteBuffer.wrap(CatalogCodec.encodeRecords(records)), null));
+    }
+
+    @Test
+    void decodesFromBufferPosition() {
+        List<CatalogRecord> records = Collections.singletonList(record("test:a", null, "A"));
+        byte[] payload = CatalogCodec.encodeRecords(records);
+
+        ByteBuffer buffer = ByteBuffer.allocate(payload.length + 3);
+        buffer.put(new byte[3]).put(payload).flip().position(3);
+
+        assertEquals(records, CatalogCodec.decodeRecords(buffer, null));
+    }
+
+    @Test
+    void catalogRoundTrip() {
+        AdvancementCatalog catalog = catalog(
+                record("test:root", null, "Root"), record("test:child", "test:root", "Child"));
+        AdvancementCatalog decoded = CatalogCodec.decode(ByteBuffer.wrap(CatalogCodec.encode(catalog)), null);
+
+        assertEquals(titles(catalog), titles(decoded));
+        assertEquals(catalog.get(1).getParentKey(), decoded.get(1).getParentKey());
+        assertEquals(catalog.get(1).getCriteria().keySet(), decoded.get(1).getCriteria().keySet());
+    }
+
+    @Test
+    void deltaAppliesToCatalogsAndRecords() {
+        CatalogRecord root = record("test:root", null, "Root"), child = record("test:child", "test:root", "Child");
+        AdvancementCatalog previous = catalog(root, child), current =
+                catalog(record("test:root", null, "Renamed"), record("test:added", "test:root", "Added"));
+
+        byte[] payload = CatalogCodec.encode(CatalogDelta.compute(previous, current));
+
+        AdvancementCatalog base = CatalogCodec.decode(ByteBuffer.wrap(CatalogCodec.encode(previous)), null);
+        assertEquals(titles(current), titles(CatalogCodec.decode(ByteBuffer.wrap(payload), base)));
+
+        List<CatalogRecord> records = CatalogCodec.decodeRecords(ByteBuffer.wrap(payload),
+                Arrays.asList(root, child));
+        assertEquals(2, records.size());
+        assertEquals("Renamed", records.get(0).getTitle());
+        assertEquals("test:added", records.get(1).getKey());
+    }
+
+    @Test
+    void deltaRejectsOtherBase() {
+        AdvancementCatalog previous = catalog(record("test:a", null, "A")),
+                current = catalog(record("test:b", null, "B"));
+        byte[] payload = CatalogCodec.encode(CatalogDelta.compute(previous, current));
+
+        assertThrows(IllegalStateException.class, () -> CatalogCodec.decode(ByteBuffer.wrap(payload), current));
+        assertThrows(IllegalStateException.class, () -> CatalogCodec.decodeRecords(ByteBuffer.wrap(payload), null));
+    }
+
+    @Test
+    void chunksReassembleInAnyOrder() {
+        List<CatalogRecord> records = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+            records.add(record("test:advancement_" + i, i == 0 ? null : "test:advancement_0", "Title " + i));
+
+        byte[] payload = CatalogCodec.encodeRecords(records);
+        List<byte[]> chunks = CatalogCodec.split(payload, 256);
+        assertTrue(chunks.size() > 1);
+        for (byte[] chunk : chunks) assertTrue(chunk.length <= 256);
+
+        Collections.shuffle(chunks, new Random(42));
+        CatalogCodec.Assembler assembler = new CatalogCodec.Assembler();
+
+        ByteBuffer assembled = null;
+        for (byte[] chunk : chunks) {
+            assertNull(assembled);
+            assembled = assembler.accept(chunk);
+        }
+
+        assertNotNull(assembled);
+        assertEquals(records, CatalogCodec.decodeRecords(assembled, null));
+    }
+
+    @Test
+    void rejectsMalformedPayloads() {
+        byte[] payload = CatalogCodec.encodeRecords(Collections.singletonList(record("test:a", null, "A")));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> CatalogCodec.decodeRecords(ByteBuffer.wrap(Arrays.copyOf(payload, payload.length - 2)), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> CatalogCodec.decodeRecords(ByteBuffer.wrap(new byte[4]), null));
+        assertThrows(IllegalArgumentException.class, () -> CatalogCodec.split(payload, 8));
+
+        // a huge string table count must be rejected before anything is allocated for it
+        byte[] huge = Arrays.copyOf(payload, 10);
+        huge[4] = (byte) 0xFF;
+        huge[5] = (byte) 0xFF;
+        huge[6] = (byte) 0xFF;
+        huge[7] = (byte) 0xFF;
+        huge[8] = 0x07;
+        assertThrows(IllegalArgumentException.class, () -> CatalogCodec.decodeRecords(ByteBuffer.wrap(huge), null));
+    }
+}
@@ -0,0 +1,50 @@
+package me.croabeast.advancement;
+
+import org.bukkit.NamespacedKey;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyIndexTest {
+
+    private static NamespacedKey[] keys(int size) {
+        NamespacedKey[] keys = new NamespacedKey[size];
+        for (int i = 0; i < size; i++) keys[i] = new NamespacedKey("ns" + i % 7, "path/advancement_" + i);
+        return keys;
+    }
+
+    private static void assertIndexes(NamespacedKey[] keys) {
+        KeyIndex index = new KeyIndex(keys);
+
+        // equal keys, not the same instances, must resolve
+        for (int i = 0; i < keys.length; i++)
+            assertEquals(i, index.get(new NamespacedKey(keys[i].getNamespace(), keys[i].getKey())));
+
+        assertEquals(-1, index.get(new NamespacedKey("absent", "key")));
+        assertEquals(-1, index.get(new NamespacedKey("ns0", "path/advancement_" + keys.length)));
+        assertEquals(-1, index.get(null));
+    }
+
+    @Test
+    void indexesNoKeys() {
+        assertIndexes(keys(0));
+    }
+
+    @Test
+    void indexesOneKey() {
+        assertIndexes(keys(1));
+    }
+
+    @Test
+    void indexesThousandsOfKeys() {
+        assertIndexes(keys(5000));
+    }
+
+    @Test
+    void rejectsRepeatedKeys() {
+        NamespacedKey[] keys = keys(10);
+        keys[7] = new NamespacedKey(keys[3].getNamespace(), keys[3].getKey());
+
+        assertThrows(IllegalArgumentException.class, () -> new KeyIndex(keys));
+    }
+}
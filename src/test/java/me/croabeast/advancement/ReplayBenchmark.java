@@ -0,0 +1,127 @@
+package me.croabeast.advancement;
+
+import org.bukkit.NamespacedKey;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.function.IntFunction;
+
+/**
+ * Replays a catalog fixture captured with {@code /ainfo capture} and measures the main library paths on it,
+ * without a server.
+ * <p>
+ * It lives with the tests, so it is never shipped with the plugin. Run it after {@code mvn test-compile}:
+ * {@code java -cp target/classes:target/test-classes:spigot-api.jar me.croabeast.advancement.ReplayBenchmark
+ * <fixture> [iterations]}. Each benchmark is warmed up with the same number of iterations it is measured with.
+ * Benchmarks of lazily computed catalog data run on fresh catalogs built before the timing starts.
+ * </p>
+ */
+final class ReplayBenchmark {
+
+    /**
+     * Keeps every result reachable, so the measured work is never optimized away.
+     */
+    private static volatile Object sink;
+
+    private ReplayBenchmark() {}
+
+    private static void run(String name, int iterations, Callable<Object> task) throws Exception {
+        run(name, iterations, i -> null, ignored -> task.call());
+    }
+
+    /**
+     * Measures the given task, passing it an input prepared for each iteration outside the timing.
+     */
+    private static <T> void run(String name, int iterations, IntFunction<T> setup, Task<T> task) throws Exception {
+        for (int round = 0; round < 2; round++) {
+            Object[] inputs = new Object[iterations];
+            for (int i = 0; i < iterations; i++) inputs[i] = setup.apply(i);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                @SuppressWarnings("unchecked")
+                T input = (T) inputs[i];
+                sink = task.run(input);
+            }
+
+            // the first round only warms up
+            if (round == 0) continue;
+
+            double millis = (System.nanoTime() - start) / 1e6 / iterations;
+            System.out.println(String.format(Locale.ROOT, "%-12s %10.3f ms/op", name, millis));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task<T> {
+        Object run(T input) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: ReplayBenchmark <fixture> [iterations]");
+            return;
+        }
+
+        Path file = Paths.get(args[0]);
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        AdvancementCatalog catalog = CatalogFixture.replay(file);
+        byte[] payload = CatalogCodec.encode(catalog);
+
+        System.out.println("Replayed " + catalog.size() + " advancements from " + file +
+                " (" + payload.length + " bytes encoded), " + iterations + " iterations");
+
+        IntFunction<AdvancementCatalog> fresh = i -> AdvancementCatalog.of(catalog.values());
+
+        run("replay", iterations, () -> CatalogFixture.replay(file));
+        run("catalog", iterations, () -> AdvancementCatalog.of(catalog.values()));
+        run("fingerprint", iterations, fresh, built -> built.getFingerprint());
+
+        run("lookup", iterations, () -> {
+            int sum = 0;
+            for (AdvancementInfo info : catalog) sum += catalog.getOrdinal(info.getKey());
+            return sum;
+        });
+
+        run("query", iterations, () -> {
+            // walks every advancement up to its root, as tab and progress lookups do
+            int depth = 0;
+            for (AdvancementInfo info : catalog) {
+                NamespacedKey key = info.getParentKey();
+                for (int steps = 0; key != null && steps < catalog.size(); steps++, depth++) {
+                    AdvancementInfo parent = catalog.get(key);
+                    key = parent == null ? null : parent.getParentKey();
+                }
+            }
+            return depth;
+        });
+
+        run("wrap", iterations, () -> {
+            int lines = 0;
+            for (AdvancementInfo info : catalog) lines += info.getDescriptionArray(35).length;
+            return lines;
+        });
+
+        run("sort", iterations, fresh, built -> built.getOrder(CatalogOrder.Sort.TITLE));
+        run("page", iterations, () -> {
+            CatalogOrder order = catalog.getOrder(CatalogOrder.Sort.TITLE);
+            int count = 0;
+            for (CatalogOrder.Page page = order.getPageAfter(null, 45); !page.isEmpty();
+                 page = order.getPageAfter(page.getNextCursor(), 45)) {
+                count += page.size();
+                if (!page.hasNext()) break;
+            }
+            return count;
+        });
+
+        run("layout", iterations, fresh, built -> built.getLayout());
+        run("criteria", iterations, fresh, built -> built.getCriteria(0));
+        run("analyze", iterations, () -> CatalogAnalyzer.analyze(catalog).join());
+        run("encode", iterations, () -> CatalogCodec.encode(catalog));
+        run("decode", iterations, () -> CatalogCodec.decode(ByteBuffer.wrap(payload), null));
+    }
+}
@@ -0,0 +1,166 @@
+package me.croabeast.advancement;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeLayoutTest {
+
+    private static CatalogRecord record(String key, String parent, float x, float y) {
+        return new CatalogRecord(
+                key, parent, key, "", null, 0, null, true, false, false, x, y, AdvancementInfo.Frame.TASK,
+                Collections.singletonList("done"), Collections.singletonList(Collections.singletonList("done"))
+        );
+    }
+
+    private static CatalogRecord record(String key, String parent) {
+        return record(key, parent, 0, 0);
+    }
+
+    private static AdvancementCatalog catalog(CatalogRecord... records) {
+        StringPool pool = new StringPool();
+
+        List<AdvancementInfo> infos = new ArrayList<>();
+        for (CatalogRecord record : records) infos.add(new DetachedInfo(record, pool));
+        return AdvancementCatalog.of(infos, pool);
+    }
+
+    private static int ordinal(AdvancementCatalog catalog, String key) {
+        for (int i = 0; i < catalog.size(); i++)
+            if (catalog.get(i).getKey().toString().equals(key)) return i;
+        throw new AssertionError("missing " + key);
+    }
+
+    private static AdvancementCatalog unevenTree() {
+        return catalog(
+                record("test:root", null),
+                record("test:a", "test:root"),
+                record("test:a1", "test:a"),
+                record("test:a2", "test:a"),
+                record("test:a2x", "test:a2"),
+                record("test:a2y", "test:a2"),
+                record("test:a2z", "test:a2"),
+                record("test:a3", "test:a"),
+                record("test:b", "test:root"),
+                record("test:c", "test:root"),
+                record("test:c1", "test:c"),
+                record("test:c1x", "test:c1"),
+                record("test:c1y", "test:c1"),
+                record("test:c1z", "test:c1"),
+                record("test:c1w", "test:c1"),
+                record("test:orphan", "test:missing")
+        );
+    }
+
+    @Test
+    void columnsFollowDepth() {
+        AdvancementCatalog catalog = unevenTree();
+        AdvancementTree tree = catalog.getTree();
+        TreeLayout layout = catalog.getLayout();
+
+        for (int i = 0; i < catalog.size(); i++) {
+            assertTrue(layout.isComputed(i));
+            assertEquals(tree.getDepth(i), layout.getX(i), 0);
+        }
+
+        assertEquals(3, tree.getDepth(ordinal(catalog, "test:a2x")));
+        assertEquals(-1, tree.getParent(ordinal(catalog, "test:orphan")));
+    }
+
+    @Test
+    void siblingsDoNotOverlap() {
+        AdvancementCatalog catalog = unevenTree();
+        AdvancementTree tree = catalog.getTree();
+        TreeLayout layout = catalog.getLayout();
+
+        // any two advancements of a tab in the same column must be at least one row apart
+        for (int i = 0; i < catalog.size(); i++)
+            for (int j = i + 1; j < catalog.size(); j++) {
+                if (tree.getRoot(i) != tree.getRoot(j) || tree.getDepth(i) != tree.getDepth(j)) continue;
+                assertTrue(Math.abs(layout.getY(i) - layout.getY(j)) >= 1,
+                        catalog.get(i).getKey() + " overlaps " + catalog.get(j).getKey());
+            }
+
+        // siblings keep their order from top to bottom
+        for (int i = 0; i < catalog.size(); i++) {
+            int next = tree.getNextSibling(i);
+            if (next >= 0) assertTrue(layout.getY(i) < layout.getY(next));
+        }
+
+        int root = ordinal(catalog, "test:root");
+        float min = Float.MAX_VALUE;
+        for (int i = root; i >= 0; i = tree.next(root, i)) min = Math.min(min, layout.getY(i));
+        assertEquals(0, min, 0);
+    }
+
+    @Test
+    void parentsAreCenteredOnChildren() {
+        AdvancementCatalog catalog = unevenTree();
+        AdvancementTree tree = catalog.getTree();
+        TreeLayout layout = catalog.getLayout();
+
+        for (int i = 0; i < catalog.size(); i++) {
+            int first = tree.getFirstChild(i);
+            if (first < 0) continue;
+
+            int last = first;
+            while (tree.getNextSibling(last) >= 0) last = tree.getNextSibling(last);
+
+            assertEquals((layout.getY(first) + layout.getY(last)) / 2, layout.getY(i), 1e-4f,
+                    catalog.get(i).getKey().toString());
+        }
+    }
+
+    @Test
+    void keepsServerCoordinates() {
+        AdvancementCatalog catalog = catalog(
+                record("test:root", null, 0, 0), record("test:child", "test:root", 3, 5));
+        TreeLayout layout = catalog.getLayout();
+
+        assertFalse(layout.isComputed(0));
+        assertEquals(3, layout.getX(1), 0);
+        assertEquals(5, layout.getY(1), 0);
+        assertEquals(4, layout.getWidth(0), 0);
+        assertEquals(6, layout.getHeight(0), 0);
+    }
+
+    @Test
+    void breaksParentCycles() {
+        AdvancementCatalog catalog = catalog(
+                record("test:x", "test:z"),
+                record("test:y", "test:x"),
+                record("test:z", "test:y"),
+                record("test:leaf", "test:y"),
+                record("test:self", "test:self")
+        );
+        AdvancementTree tree = catalog.getTree();
+        TreeLayout layout = catalog.getLayout();
+
+        int x = ordinal(catalog, "test:x"), y = ordinal(catalog, "test:y"), z = ordinal(catalog, "test:z");
+
+        int roots = 0, root = -1;
+        for (int i : new int[] {x, y, z})
+            if (tree.getParent(i) < 0) {
+                roots++;
+                root = i;
+            }
+
+        assertEquals(1, roots);
+        for (int i : new int[] {x, y, z, ordinal(catalog, "test:leaf")}) {
+            assertEquals(root, tree.getRoot(i));
+            assertEquals(tree.getDepth(i), layout.getX(i), 0);
+        }
+
+        int self = ordinal(catalog, "test:self");
+        assertEquals(-1, tree.getParent(self));
+        assertEquals(self, tree.getRoot(self));
+
+        int count = 0;
+        for (int i = root; i >= 0; i = tree.next(root, i)) count++;
+        assertEquals(4, count);
+    }
+}